@@ -0,0 +1,69 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds product-service through {@code POST /products/batch} with synthetic NDJSON products and
+ * returns the ids it assigned, which the traffic then reads.
+ */
+final class CatalogSeeder {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private static final String[] WORDS = {"slim", "casual", "classic", "vintage", "waterproof", "hooded",
+            "cotton", "denim", "leather", "wool", "linen", "jacket", "shirt", "dress", "sweater", "coat", "jeans"};
+
+    private final HttpClient client;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    CatalogSeeder(HttpClient client) {
+        this.client = client;
+    }
+
+    int[] seed(String productServiceUrl, String token, int size) throws IOException, InterruptedException {
+        Random random = new Random(42);
+        int[] ids = new int[size];
+        int count = 0;
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(size, from + BATCH_SIZE); i++) {
+                Map<String, String> product = new LinkedHashMap<>();
+                product.put("title", word(random) + " " + word(random) + " " + word(random));
+                product.put("description", "Load-test product " + i + ", " + word(random) + " " + word(random));
+                product.put("image", "https://fakestoreapi.com/img/" + (i % 20 + 1) + ".jpg");
+                body.append(mapper.writeValueAsString(product)).append('\n');
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(productServiceUrl + "/products/batch"))
+                    .header("Authorization", token)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode id : mapper.readTree(response.body()).get("ids")) {
+                if (!id.isNull()) {
+                    ids[count++] = id.asInt();
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
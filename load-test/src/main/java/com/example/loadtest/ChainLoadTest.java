@@ -0,0 +1,125 @@
+package com.example.loadtest;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the whole chain, client -> open-feign -> product-service -> H2, in one JVM:
+ * <ol>
+ * <li>starts a local identity provider and points product-service's issuer, audience and JWK set at it,</li>
+ * <li>starts product-service and seeds {@code catalog} products through {@code POST /products/batch},</li>
+ * <li>starts open-feign against that product-service,</li>
+ * <li>drives {@code GET /products/{id}} through open-feign for the warmup, then for the measured duration.</li>
+ * </ol>
+ * Prints end-to-end throughput and percentiles from the client side, then per-hop percentiles from
+ * the services' own histograms, and writes the client histogram to {@code target/load-test-<mode>.hgrm}.
+ * <p>
+ * Both services must be compiled and have their classpath written first, see the README.
+ */
+public class ChainLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        PrintStream out = System.out;
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        try (IdentityProviderStub identityProvider = new IdentityProviderStub()) {
+            List<String> productServiceArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + identityProvider.issuer(),
+                    "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + identityProvider.jwkSetUri(),
+                    "--spring.security.oauth2.resourceserver.jwt.audience=" + IdentityProviderStub.AUDIENCE,
+                    "--jwt.jwk.source=REMOTE",
+                    "--logging.level.root=WARN"));
+            productServiceArgs.addAll(options.productServiceArgs());
+
+            try (IsolatedService productService = IsolatedService.start("product-service",
+                    options.productServiceModule(), "com.example.oauth.ProductServiceApplication", productServiceArgs)) {
+                out.printf("product-service on %s%n", productService.url());
+                String writer = identityProvider.mint("load-test-seeder", "Products.Read Products.Write", Duration.ofHours(1));
+                int[] ids = new CatalogSeeder(client).seed(productService.url(), writer, options.catalog());
+                out.printf("seeded %d products%n", ids.length);
+
+                List<String> gatewayArgs = new ArrayList<>(List.of(
+                        "--server.port=0",
+                        "--product-service.url=" + productService.url(),
+                        "--logging.level.root=WARN"));
+                gatewayArgs.addAll(options.gatewayArgs());
+
+                try (IsolatedService gateway = IsolatedService.start("open-feign",
+                        options.gatewayModule(), "com.example.feign.OpenFeignApplication", gatewayArgs)) {
+                    out.printf("open-feign on %s%n", gateway.url());
+                    String[] tokens = new String[options.tokens()];
+                    for (int i = 0; i < tokens.length; i++) {
+                        tokens[i] = identityProvider.mint("load-test-" + i, "Products.Read", Duration.ofHours(1));
+                    }
+                    run(options, client, gateway, productService, ids, tokens, out);
+                }
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options, HttpClient client, IsolatedService gateway,
+                            IsolatedService productService, int[] ids, String[] tokens, PrintStream out) throws Exception {
+        TrafficDriver driver = new TrafficDriver(client, gateway.url(), ids, tokens);
+        List<HopMetrics> hops = List.of(
+                new HopMetrics("open-feign GET /products/{id}", gateway.url(),
+                        "http_server_requests_seconds", Map.of("uri", "/products/{id}")),
+                new HopMetrics("open-feign -> product-service", gateway.url(),
+                        "http_client_requests_seconds", Map.of()),
+                new HopMetrics("product-service GET /products/{id}", productService.url(),
+                        "http_server_requests_seconds", Map.of("uri", "/products/{id}")),
+                new HopMetrics("product-service jwt.decode", productService.url(),
+                        "jwt_decode_seconds", Map.of()),
+                new HopMetrics("product-service find-by-id query", productService.url(),
+                        "products_db_query_seconds", Map.of("statement", "find-by-id")));
+
+        out.printf("warming up for %s%n", options.warmup());
+        drive(options, driver, options.warmup());
+
+        List<TreeMap<Double, Long>> before = new ArrayList<>();
+        for (HopMetrics hop : hops) {
+            before.add(hop.scrape(client));
+        }
+        out.printf("measuring %s load for %s%n", options.mode(), options.duration());
+        TrafficDriver.Result result = drive(options, driver, options.duration());
+
+        out.println();
+        out.printf("%-40s %s%n", "client (" + describe(options) + ")", result);
+        for (int i = 0; i < hops.size(); i++) {
+            HopMetrics hop = hops.get(i);
+            out.println(HopMetrics.report(hop.hop(), before.get(i), hop.scrape(client)));
+        }
+
+        Path report = Path.of("target", "load-test-" + options.mode() + ".hgrm");
+        Files.createDirectories(report.getParent());
+        try (PrintStream hgrm = new PrintStream(Files.newOutputStream(report))) {
+            result.latencies().outputPercentileDistribution(hgrm, 1_000_000.0);
+        }
+        out.printf("%nclient histogram (ms) written to %s%n", report);
+    }
+
+    private static TrafficDriver.Result drive(LoadTestOptions options, TrafficDriver driver, Duration duration) {
+        return options.mode().equals("open")
+                ? driver.open(options.rate(), duration)
+                : driver.closed(options.concurrency(), duration);
+    }
+
+    private static String describe(LoadTestOptions options) {
+        return options.mode().equals("open")
+                ? "open, " + options.rate() + " req/s"
+                : "closed, " + options.concurrency() + " clients";
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Latency of one hop of the chain, read from the histogram buckets a service publishes at
+ * {@code /actuator/prometheus}. Buckets are scraped before and after the run and subtracted, so
+ * percentiles cover exactly the measured interval. They are interpolated within a bucket, so they
+ * are as precise as the bucket bounds.
+ *
+ * @param metric prometheus name of a timer with percentiles-histogram enabled, e.g. {@code http_server_requests_seconds}
+ * @param labels label values a series must have to count, other series of the metric are ignored
+ */
+record HopMetrics(String hop, String serviceUrl, String metric, Map<String, String> labels) {
+
+    private static final Pattern LABEL = Pattern.compile("(\\w+)=\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    /**
+     * Cumulative request count per bucket upper bound in seconds, summed over matching series.
+     */
+    TreeMap<Double, Long> scrape(HttpClient client) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(serviceUrl + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        TreeMap<Double, Long> buckets = new TreeMap<>();
+        String prefix = metric + "_bucket{";
+        for (String line : response.body().split("\n")) {
+            if (!line.startsWith(prefix)) {
+                continue;
+            }
+            int end = line.lastIndexOf('}');
+            Map<String, String> series = new TreeMap<>();
+            Matcher matcher = LABEL.matcher(line.substring(prefix.length(), end));
+            while (matcher.find()) {
+                series.put(matcher.group(1), matcher.group(2));
+            }
+            if (!series.entrySet().containsAll(labels.entrySet())) {
+                continue;
+            }
+            String le = series.get("le");
+            double bound = le.equals("+Inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(le);
+            long count = (long) Double.parseDouble(line.substring(end + 1).trim());
+            buckets.merge(bound, count, Long::sum);
+        }
+        return buckets;
+    }
+
+    static String report(String hop, TreeMap<Double, Long> before, TreeMap<Double, Long> after) {
+        TreeMap<Double, Long> delta = new TreeMap<>();
+        after.forEach((bound, count) -> delta.put(bound, count - before.getOrDefault(bound, 0L)));
+        long total = delta.isEmpty() ? 0 : delta.lastEntry().getValue();
+        if (total == 0) {
+            return "%-40s %10s".formatted(hop, "no samples");
+        }
+        return "%-40s %10d  p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms".formatted(hop, total,
+                percentileMillis(delta, total, 0.50), percentileMillis(delta, total, 0.90),
+                percentileMillis(delta, total, 0.99));
+    }
+
+    private static double percentileMillis(TreeMap<Double, Long> cumulative, long total, double quantile) {
+        double rank = quantile * total;
+        double lower = 0;
+        long below = 0;
+        for (Map.Entry<Double, Long> bucket : cumulative.entrySet()) {
+            if (bucket.getValue() >= rank) {
+                if (bucket.getKey().isInfinite()) {
+                    return lower * 1000;
+                }
+                long inBucket = bucket.getValue() - below;
+                double fraction = inBucket == 0 ? 1 : (rank - below) / inBucket;
+                return (lower + (bucket.getKey() - lower) * fraction) * 1000;
+            }
+            lower = bucket.getKey();
+            below = bucket.getValue();
+        }
+        return lower * 1000;
+    }
+}
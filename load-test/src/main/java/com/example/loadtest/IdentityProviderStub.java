@@ -0,0 +1,91 @@
+package com.example.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Stands in for the identity provider product-service trusts, so the chain runs offline: serves
+ * the OpenID discovery document and JWK set on a local port and mints RS256 access tokens signed
+ * with the matching key, for the issuer and audience product-service is started with.
+ */
+final class IdentityProviderStub implements AutoCloseable {
+
+    static final String AUDIENCE = "load-test";
+
+    private final RSAKey key;
+
+    private final RSASSASigner signer;
+
+    private final HttpServer server;
+
+    IdentityProviderStub() throws IOException, JOSEException {
+        this.key = new RSAKeyGenerator(2048).keyID("load-test").generate();
+        this.signer = new RSASSASigner(key);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+        this.server.createContext("/keys", exchange -> respond(exchange, new JWKSet(key.toPublicJWK()).toString()));
+        this.server.createContext("/.well-known/openid-configuration", exchange -> respond(exchange,
+                "{\"issuer\":\"" + issuer() + "\",\"jwks_uri\":\"" + jwkSetUri() + "\"}"));
+        this.server.start();
+    }
+
+    String issuer() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    String jwkSetUri() {
+        return issuer() + "/keys";
+    }
+
+    /**
+     * A bearer token for {@code subject}, with Azure AD style space separated scopes in {@code scp}.
+     */
+    String mint(String subject, String scopes, Duration ttl) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .audience(List.of(AUDIENCE))
+                .subject(subject)
+                .issueTime(Date.from(now))
+                .notBeforeTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(ttl)))
+                .claim("scp", scopes)
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(), claims);
+        jwt.sign(signer);
+        return "Bearer " + jwt.serialize();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.loadtest;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Spring Boot service started in this JVM from its module's compiled classes and dependency
+ * classpath. Each service gets a class loader of its own, parented by the platform loader, so
+ * two services with their own application.properties, logback-spring.xml and dependency
+ * versions run side by side without seeing each other or the harness.
+ * <p>
+ * The dependency classpath is read from {@code target/classpath.txt}, written by
+ * {@code mvn compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt}.
+ * <p>
+ * Embedded Tomcat registers a JVM-wide URL stream handler factory, which only one copy of Tomcat
+ * can do, so it is disabled in every service; it only serves {@code war:} URLs. Spring's and the
+ * logging system's shutdown hooks are off as well, the harness closes each service before its class loader.
+ */
+final class IsolatedService implements AutoCloseable {
+
+    private final String name;
+
+    private final URLClassLoader loader;
+
+    private final Object context;
+
+    private final int port;
+
+    private IsolatedService(String name, URLClassLoader loader, Object context, int port) {
+        this.name = name;
+        this.loader = loader;
+        this.context = context;
+        this.port = port;
+    }
+
+    static IsolatedService start(String name, Path module, String mainClass, List<String> args) throws Exception {
+        Path classpath = module.resolve("target/classpath.txt");
+        if (!Files.exists(classpath)) {
+            throw new IllegalStateException(classpath + " is missing, run (cd " + module
+                    + " && ./mvnw -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt)");
+        }
+        List<URL> urls = new ArrayList<>();
+        urls.add(module.resolve("target/classes").toUri().toURL());
+        for (String entry : Files.readString(classpath).trim().split(File.pathSeparator)) {
+            urls.add(Path.of(entry).toUri().toURL());
+        }
+        URLClassLoader loader = new URLClassLoader(name, urls.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            loader.loadClass("org.apache.catalina.webresources.TomcatURLStreamHandlerFactory")
+                    .getMethod("disable").invoke(null);
+            List<String> arguments = new ArrayList<>(args);
+            arguments.add("--spring.main.register-shutdown-hook=false");
+            arguments.add("--logging.register-shutdown-hook=false");
+            arguments.add("--spring.main.banner-mode=off");
+            Class<?> application = loader.loadClass(mainClass);
+            Method run = loader.loadClass("org.springframework.boot.SpringApplication")
+                    .getMethod("run", Class.class, String[].class);
+            Object context = run.invoke(null, application, arguments.toArray(String[]::new));
+            Object environment = loader.loadClass("org.springframework.context.ConfigurableApplicationContext")
+                    .getMethod("getEnvironment").invoke(context);
+            Object port = loader.loadClass("org.springframework.core.env.PropertyResolver")
+                    .getMethod("getProperty", String.class).invoke(environment, "local.server.port");
+            return new IsolatedService(name, loader, context, Integer.parseInt((String) port));
+        } catch (InvocationTargetException ex) {
+            loader.close();
+            throw new IllegalStateException(name + " failed to start", ex.getCause());
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    String url() {
+        return "http://localhost:" + port;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            loader.loadClass("org.springframework.context.ConfigurableApplicationContext")
+                    .getMethod("close").invoke(context);
+        } finally {
+            loader.close();
+        }
+    }
+}
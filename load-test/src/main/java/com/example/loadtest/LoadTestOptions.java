@@ -0,0 +1,93 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Harness settings from {@code key=value} arguments. Arguments starting with {@code ps.} or
+ * {@code gw.} are passed on, without the prefix, as {@code --key=value} to product-service or
+ * open-feign, e.g. {@code ps.products.cache.enabled=false gw.spring.threads.virtual.enabled=true}.
+ *
+ * @param mode        closed: {@code concurrency} clients send requests back to back;
+ *                    open: requests arrive at {@code rate} per second whatever the response times
+ * @param catalog     products seeded into product-service before the run
+ * @param tokens      distinct access tokens the clients rotate through
+ */
+record LoadTestOptions(
+        String mode,
+        int concurrency,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        int catalog,
+        int tokens,
+        Path productServiceModule,
+        Path gatewayModule,
+        List<String> productServiceArgs,
+        List<String> gatewayArgs) {
+
+    static LoadTestOptions parse(String[] args) {
+        String mode = "closed";
+        int concurrency = 64;
+        int rate = 500;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        int catalog = 10_000;
+        int tokens = 50;
+        Path productService = Path.of("../product-service");
+        Path gateway = Path.of("../open-feign");
+        List<String> productServiceArgs = new ArrayList<>();
+        List<String> gatewayArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            if (key.startsWith("ps.")) {
+                productServiceArgs.add("--" + arg.substring(3));
+                continue;
+            }
+            if (key.startsWith("gw.")) {
+                gatewayArgs.add("--" + arg.substring(3));
+                continue;
+            }
+            switch (key) {
+                case "mode" -> mode = value;
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "rate" -> rate = Integer.parseInt(value);
+                case "warmup" -> warmup = duration(value);
+                case "duration" -> duration = duration(value);
+                case "catalog" -> catalog = Integer.parseInt(value);
+                case "tokens" -> tokens = Integer.parseInt(value);
+                case "product-service" -> productService = Path.of(value);
+                case "gateway" -> gateway = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + key);
+            }
+        }
+        if (!mode.equals("closed") && !mode.equals("open")) {
+            throw new IllegalArgumentException("mode is closed or open, got " + mode);
+        }
+        return new LoadTestOptions(mode, concurrency, rate, warmup, duration, catalog, tokens,
+                productService, gateway, productServiceArgs, gatewayArgs);
+    }
+
+    /**
+     * 500ms, 30s, 2m, or plain seconds.
+     */
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of one service, measured from outside. Each run launches the packaged service in a
+ * fresh JVM and records
+ * <ul>
+ * <li>ready: from launching the JVM until the server port accepts connections,</li>
+ * <li>first request: the response time of the first request once it does, which pays for
+ * whatever the service left to initialize on first use.</li>
+ * </ul>
+ * Variants, from the jars {@code mvn -Pstartup package} builds in the service's module:
+ * <ul>
+ * <li>jar: the executable jar, as deployed without the startup build,</li>
+ * <li>lazy: the executable jar with the startup profile, so lazy initialization only,</li>
+ * <li>aot: the plain startup jar with the AOT-generated bean definitions and lazy initialization,</li>
+ * <li>cds: aot, with the class-data archive from the build's training run.</li>
+ * </ul>
+ * Runs are interleaved across variants so drift on the machine spreads over all of them. Every
+ * run is written to {@code target/startup-<service>.csv} for tracking over time.
+ */
+public class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    enum Variant {
+        JAR, LAZY, AOT, CDS;
+
+        /**
+         * Where the service is started. The CDS archive records the startup jar by the relative
+         * path it was trained with, so the startup variants run from the jar's directory.
+         */
+        Path directory(Path module) {
+            return module.resolve(this == JAR || this == LAZY ? "target" : "target/startup");
+        }
+
+        List<String> command(Path module, String service) throws IOException {
+            Path directory = directory(module);
+            return switch (this) {
+                case JAR -> List.of("-jar", jar(directory, service + "-*.jar"));
+                case LAZY -> List.of("-jar", jar(directory, service + "-*.jar"), "--spring.profiles.active=startup");
+                case AOT -> List.of("-Dspring.aot.enabled=true",
+                        "-jar", jar(directory, service + "-*-startup.jar"), "--spring.profiles.active=startup");
+                case CDS -> List.of("-XX:SharedArchiveFile=" + service + ".jsa", "-Xlog:cds=off", "-Xlog:cds+dynamic=off",
+                        "-Dspring.aot.enabled=true",
+                        "-jar", jar(directory, service + "-*-startup.jar"), "--spring.profiles.active=startup");
+            };
+        }
+
+        private static String jar(Path directory, String glob) throws IOException {
+            try (DirectoryStream<Path> jars = Files.newDirectoryStream(directory, glob)) {
+                for (Path jar : jars) {
+                    return jar.getFileName().toString();
+                }
+            }
+            throw new IllegalStateException("No " + glob + " in " + directory + ", run mvn -Pstartup package in the service's module");
+        }
+    }
+
+    /**
+     * What a service needs to start here, and the request that is timed first.
+     */
+    private record Target(List<String> args, String path, String authorization) {
+    }
+
+    private record Run(Variant variant, double readyMillis, double firstRequestMillis, int status) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of("service", "product-service", "runs", "5",
+                "variants", "jar,lazy,aot,cds"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String service = options.get("service");
+        Path module = Path.of(options.getOrDefault("module", "../" + service));
+        int runs = Integer.parseInt(options.get("runs"));
+        List<Variant> variants = Arrays.stream(options.get("variants").split(","))
+                .map(name -> Variant.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                .toList();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        PrintStream out = System.out;
+        Files.createDirectories(Path.of("target"));
+        List<Run> results = new ArrayList<>();
+        try (IdentityProviderStub identityProvider = new IdentityProviderStub()) {
+            HttpServer productServiceStub = productServiceStub();
+            try {
+                Target target = target(service, identityProvider, productServiceStub);
+                for (int run = 1; run <= runs; run++) {
+                    for (Variant variant : variants) {
+                        Run result = run(client, module, service, variant, target);
+                        out.printf("run %d %-5s ready %7.0f ms  first request %7.1f ms  status %d%n", run,
+                                variant.name().toLowerCase(Locale.ROOT), result.readyMillis(),
+                                result.firstRequestMillis(), result.status());
+                        results.add(result);
+                    }
+                }
+            } finally {
+                productServiceStub.stop(0);
+            }
+        }
+
+        out.println();
+        out.printf("%s, %d runs per variant%n", service, runs);
+        out.printf("%-8s %24s %30s%n", "", "ready median / min", "first request median / min");
+        Map<Variant, List<Run>> byVariant = new EnumMap<>(Variant.class);
+        results.forEach(result -> byVariant.computeIfAbsent(result.variant(), key -> new ArrayList<>()).add(result));
+        byVariant.forEach((variant, variantRuns) -> {
+            double[] ready = variantRuns.stream().mapToDouble(Run::readyMillis).sorted().toArray();
+            double[] first = variantRuns.stream().mapToDouble(Run::firstRequestMillis).sorted().toArray();
+            out.printf("%-8s %12.0f / %6.0f ms %18.1f / %6.1f ms%n", variant.name().toLowerCase(Locale.ROOT),
+                    ready[ready.length / 2], ready[0], first[first.length / 2], first[0]);
+        });
+
+        Path csv = Path.of("target", "startup-" + service + ".csv");
+        StringBuilder lines = new StringBuilder("variant,ready_ms,first_request_ms,status\n");
+        results.forEach(result -> lines.append("%s,%.1f,%.1f,%d%n".formatted(result.variant().name().toLowerCase(Locale.ROOT),
+                result.readyMillis(), result.firstRequestMillis(), result.status())));
+        Files.writeString(csv, lines);
+        out.printf("%nruns written to %s%n", csv);
+    }
+
+    private static Target target(String service, IdentityProviderStub identityProvider, HttpServer productServiceStub)
+            throws Exception {
+        return switch (service) {
+            case "product-service" -> new Target(List.of(
+                    "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + identityProvider.issuer(),
+                    "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + identityProvider.jwkSetUri(),
+                    "--spring.security.oauth2.resourceserver.jwt.audience=" + IdentityProviderStub.AUDIENCE),
+                    "/products/1", identityProvider.mint("startup-benchmark", "Products.Read", Duration.ofHours(1)));
+            case "open-feign" -> new Target(List.of(
+                    "--product-service.url=http://localhost:" + productServiceStub.getAddress().getPort()),
+                    "/products/1", "Bearer startup-benchmark");
+            case "where-are-my-cookies" -> new Target(List.of(), "/", null);
+            default -> throw new IllegalArgumentException("service is product-service, open-feign or where-are-my-cookies, got " + service);
+        };
+    }
+
+    private static Run run(HttpClient client, Path module, String service, Variant variant, Target target) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(variant.command(module, service));
+        command.add("--server.port=" + port);
+        command.addAll(target.args());
+        Path log = Path.of("target", "startup-" + service + "-" + variant.name().toLowerCase(Locale.ROOT) + ".log")
+                .toAbsolutePath();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(variant.directory(module).toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            awaitPort(process, port, log);
+            long ready = System.nanoTime();
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + target.path()))
+                    .timeout(Duration.ofSeconds(30));
+            if (target.authorization() != null) {
+                request.header("Authorization", target.authorization());
+            }
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            long first = System.nanoTime();
+            return new Run(variant, (ready - start) / 1e6, (first - ready) / 1e6, response.statusCode());
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void awaitPort(Process process, int port, Path log) throws InterruptedException {
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + log);
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 100);
+                return;
+            } catch (IOException ex) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("Service did not open port " + port + " within " + START_TIMEOUT + ", see " + log);
+    }
+
+    /**
+     * Answers open-feign's product reads, so its first request makes a real call through ProductApiClient.
+     */
+    private static HttpServer productServiceStub() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        byte[] product = """
+                {"id":1,"title":"Startup","description":"Product served by the startup benchmark"}"""
+                .getBytes(StandardCharsets.UTF_8);
+        server.createContext("/products/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, product.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(product);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends {@code GET /products/{id}} for random seeded ids, each with one of the minted tokens, and
+ * records response times in an HdrHistogram.
+ * <ul>
+ * <li>Closed model: a fixed number of virtual-thread clients, each waiting for its response before
+ * sending again. Throughput follows the response time.</li>
+ * <li>Open model: requests are started on schedule at a fixed rate, each on its own virtual thread,
+ * and timed from their scheduled start. When the chain falls behind, the wait shows up in the
+ * latencies instead of silently lowering the offered load.</li>
+ * </ul>
+ */
+final class TrafficDriver {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final int[] ids;
+
+    private final String[] tokens;
+
+    TrafficDriver(HttpClient client, String baseUrl, int[] ids, String[] tokens) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+        this.tokens = tokens;
+    }
+
+    Result closed(int concurrency, Duration duration) {
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        send(System.nanoTime(), latencies, errors);
+                    }
+                });
+            }
+        }
+        return new Result(latencies, errors.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    Result open(int rate, Duration duration) {
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        LongAdder errors = new LongAdder();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long requests = duration.toNanos() / interval;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> send(scheduled, latencies, errors));
+            }
+        }
+        return new Result(latencies, errors.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void send(long start, Histogram latencies, LongAdder errors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + ids[random.nextInt(ids.length)]))
+                .header("Authorization", tokens[random.nextInt(tokens.length)])
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                latencies.recordValue(Math.min(System.nanoTime() - start, HIGHEST_LATENCY));
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            // counted below
+        }
+        errors.increment();
+    }
+
+    /**
+     * Latencies of the successful requests, in nanoseconds.
+     */
+    record Result(Histogram latencies, long errors, Duration elapsed) {
+
+        long requests() {
+            return latencies.getTotalCount() + errors;
+        }
+
+        double throughput() {
+            return latencies.getTotalCount() / (elapsed.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "%8.0f req/s  requests %8d  errors %6d  p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms"
+                    .formatted(throughput(), requests(), errors, percentileMillis(50), percentileMillis(90),
+                            percentileMillis(99), percentileMillis(99.9), latencies.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.feign;
 
+import com.example.feign.controller.ProductController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 @EnableFeignClients
@@ -10,4 +13,13 @@ public class OpenFeignApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(OpenFeignApplication.class, args);
 	}
+
+	/**
+	 * With spring.main.lazy-initialization (the startup profile) the controller is still built at
+	 * startup, and with it the service, ProductApiClient and its transport: every request needs them.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerRequestPath() {
+		return LazyInitializationExcludeFilter.forBeanTypes(ProductController.class);
+	}
 }
@@ -7,7 +7,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,7 +17,6 @@ import java.util.List;
  * https://docs.spring.io/spring-cloud-openfeign/docs/current/reference/html/#spring-cloud-feign
  */
 @FeignClient(value = "ProductApiClient",
-        url="http://localhost:9001",
         configuration = ProductApiClientConfig.class)
 public interface ProductApiClient {
 
@@ -26,6 +27,13 @@ public interface ProductApiClient {
     Product getProductById(@RequestHeader("Authorization") String accessToken,
                               @PathVariable("id") int id);
 
+    /**
+     * Products for the given ids in one call, ids that do not exist are left out.
+     */
+    @GetMapping("/products")
+    List<Product> getProductsByIds(@RequestHeader("Authorization") String accessToken,
+                                   @RequestParam("ids") Collection<Integer> ids);
+
     @PostMapping(value = "/products", consumes = "application/json")
     void addProduct(@RequestHeader("Authorization") String accessToken,
                     Product product);
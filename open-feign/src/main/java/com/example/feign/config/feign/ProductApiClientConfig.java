@@ -1,21 +1,93 @@
 package com.example.feign.config.feign;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Capability;
 import feign.Logger;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
+import feign.optionals.OptionalDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
 
 @Configuration
 public class ProductApiClientConfig {
 
+    /**
+     * What a sampled call logs: BASIC the call and its status, HEADERS adds redacted headers,
+     * FULL adds capped bodies. NONE turns the logger off, 5xx responses included.
+     */
     @Bean
-    Logger.Level feignLoggerLevel() {
-        return Logger.Level.FULL;
+    Logger.Level feignLoggerLevel(ProductApiLoggingProps props) {
+        return props.getLevel();
+    }
+
+    @Bean
+    public Logger feignLogger(ProductApiLoggingProps props) {
+        return new ProductApiLogger(props);
     }
 
     @Bean
     public ErrorDecoder errorDecoder() {
         return new ProductApiErrorDecoder();
     }
+
+    @Bean
+    public Capability revalidation(ProductApiRevalidationProps props, MeterRegistry registry) {
+        return new ProductApiRevalidation(props, registry);
+    }
+
+    /**
+     * Asks product-service for product-service.transport.accept, JSON by default. Smile and CBOR
+     * bodies are smaller and cheaper to parse than JSON.
+     */
+    @Bean
+    public RequestInterceptor acceptInterceptor(ProductApiTransportProps props) {
+        return template -> {
+            if (Request.HttpMethod.GET.name().equals(template.method()) && !template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, props.getAccept());
+            }
+        };
+    }
+
+    /**
+     * JSON, Smile and CBOR converters sharing the application's ObjectMapper settings; the
+     * response Content-Type picks the one that decodes it.
+     */
+    @Bean
+    public Decoder feignDecoder(ObjectMapper mapper, ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        HttpMessageConverters converters = productConverters(mapper);
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters, customizers)));
+    }
+
+    @Bean
+    public Encoder feignEncoder(ObjectMapper mapper) {
+        HttpMessageConverters converters = productConverters(mapper);
+        return new SpringEncoder(() -> converters);
+    }
+
+    private static HttpMessageConverters productConverters(ObjectMapper mapper) {
+        return new HttpMessageConverters(false, List.of(
+                new MappingJackson2HttpMessageConverter(mapper),
+                new MappingJackson2SmileHttpMessageConverter(mapper.copyWith(new SmileFactory())),
+                new MappingJackson2CborHttpMessageConverter(mapper.copyWith(new CBORFactory()))));
+    }
 }
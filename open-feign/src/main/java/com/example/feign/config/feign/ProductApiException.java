@@ -0,0 +1,24 @@
+package com.example.feign.config.feign;
+
+/**
+ * Non-2xx response from product-service, carrying the status it answered with.
+ */
+public class ProductApiException extends RuntimeException {
+    private final int status;
+
+    public ProductApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Statuses worth trying again: the request may succeed on another attempt or instance.
+     */
+    public boolean isTransient() {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+}
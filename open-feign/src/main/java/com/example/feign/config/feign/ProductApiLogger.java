@@ -0,0 +1,182 @@
+package com.example.feign.config.feign;
+
+import feign.Logger;
+import feign.Request;
+import feign.Response;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs calls to product-service as one event per call, with the call's fields as SLF4J key-value
+ * pairs rather than Feign's line-per-header output. Calls are sampled per client method, at
+ * product-service.logging.sample-rates or sample-rate. 5xx responses and I/O errors are always logged.
+ * Nothing is formatted and no body is buffered for a call that is not sampled.
+ * <p>
+ * Headers in product-service.logging.redacted-headers are logged as {@code [redacted]}. With level
+ * FULL, text bodies are logged up to max-body-size, binary bodies by their size only. No more than
+ * max-body-size of a response is buffered; the rest is streamed to the caller.
+ */
+public class ProductApiLogger extends Logger {
+
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(ProductApiClient.class);
+
+    private final ProductApiLoggingProps props;
+
+    private final Set<String> redacted = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    private final Map<String, Double> sampleRates = new ConcurrentHashMap<>();
+
+    public ProductApiLogger(ProductApiLoggingProps props) {
+        this.props = props;
+        this.redacted.addAll(props.getRedactedHeaders());
+    }
+
+    @Override
+    protected void logRequest(String configKey, Level logLevel, Request request) {
+        // The request is logged with its response, or with the error that ended it
+    }
+
+    @Override
+    protected void logRetry(String configKey, Level logLevel) {
+        log.atDebug()
+                .addKeyValue("client", method(configKey))
+                .log("Retrying product-service call");
+    }
+
+    @Override
+    protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response, long elapsedTime)
+            throws IOException {
+        boolean failed = response.status() >= 500;
+        if (!(failed ? log.isWarnEnabled() : log.isInfoEnabled() && sampled(configKey))) {
+            return response;
+        }
+        Request request = response.request();
+        LoggingEventBuilder event = (failed ? log.atWarn() : log.atInfo())
+                .addKeyValue("client", method(configKey))
+                .addKeyValue("method", request.httpMethod())
+                .addKeyValue("url", request.url())
+                .addKeyValue("status", response.status())
+                .addKeyValue("elapsedMs", elapsedTime);
+        if (logLevel.ordinal() >= Level.HEADERS.ordinal()) {
+            event.addKeyValue("requestHeaders", headers(request.headers()))
+                    .addKeyValue("responseHeaders", headers(response.headers()));
+        }
+        if (logLevel == Level.FULL) {
+            if (request.body() != null) {
+                event.addKeyValue("requestBody",
+                        body(request.body(), request.body().length, request.charset(), request.headers()));
+            }
+            if (response.body() != null) {
+                // Only what can be logged is buffered, the caller reads it and then the rest of the stream
+                Integer length = response.body().length();
+                InputStream in = response.body().asInputStream();
+                byte[] prefix;
+                try {
+                    prefix = in.readNBytes(maxBodySize() + 1);
+                } catch (IOException ex) {
+                    response.close();
+                    throw ex;
+                }
+                if (prefix.length > maxBodySize()) {
+                    response = response.toBuilder()
+                            .body(new SequenceInputStream(new ByteArrayInputStream(prefix), in), length)
+                            .build();
+                } else {
+                    in.close();
+                    response = response.toBuilder().body(prefix).build();
+                }
+                event.addKeyValue("responseBody", body(prefix, length, response.charset(), response.headers()));
+            }
+        } else if (response.body() != null && response.body().length() != null) {
+            event.addKeyValue("responseBytes", response.body().length());
+        }
+        event.log("product-service call");
+        return response;
+    }
+
+    @Override
+    protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+        log.atWarn()
+                .addKeyValue("client", method(configKey))
+                .addKeyValue("elapsedMs", elapsedTime)
+                .addKeyValue("error", ioe.getClass().getSimpleName() + ": " + ioe.getMessage())
+                .log("product-service call failed");
+        return ioe;
+    }
+
+    @Override
+    protected void log(String configKey, String format, Object... args) {
+        log.debug(String.format(methodTag(configKey) + format, args));
+    }
+
+    private boolean sampled(String configKey) {
+        double rate = sampleRates.computeIfAbsent(configKey,
+                key -> props.getSampleRates().getOrDefault(method(key), props.getSampleRate()));
+        return rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * ProductApiClient#getProductById(String,int) -> getProductById
+     */
+    private static String method(String configKey) {
+        int start = configKey.indexOf('#') + 1;
+        int end = configKey.indexOf('(', start);
+        return end < 0 ? configKey.substring(start) : configKey.substring(start, end);
+    }
+
+    private String headers(Map<String, Collection<String>> headers) {
+        StringBuilder out = new StringBuilder();
+        headers.forEach((name, values) -> {
+            if (!out.isEmpty()) {
+                out.append("; ");
+            }
+            out.append(name).append(": ").append(redacted.contains(name) ? "[redacted]" : String.join(",", values));
+        });
+        return out.toString();
+    }
+
+    /**
+     * {@code body} may be just the start of a longer body; {@code length} is the full size when known.
+     */
+    private String body(byte[] body, Integer length, Charset charset, Map<String, Collection<String>> headers) {
+        int max = maxBodySize();
+        boolean truncated = body.length > max;
+        String size = length != null ? length + " bytes"
+                : truncated ? "over " + max + " bytes"
+                : body.length + " bytes";
+        Collection<String> contentType = headers.get(HttpHeaders.CONTENT_TYPE);
+        if (contentType != null && !contentType.isEmpty() && !textual(contentType.iterator().next())) {
+            return "[" + size + "]";
+        }
+        String text = new String(body, 0, Math.min(body.length, max), charset != null ? charset : StandardCharsets.UTF_8);
+        return truncated ? text + "...[" + size + "]" : text;
+    }
+
+    private int maxBodySize() {
+        return (int) Math.min(props.getMaxBodySize().toBytes(), Integer.MAX_VALUE - 1);
+    }
+
+    private static boolean textual(String contentType) {
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return type.getType().equals("text") || type.getSubtype().equals("json") || type.getSubtype().endsWith("+json");
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+}
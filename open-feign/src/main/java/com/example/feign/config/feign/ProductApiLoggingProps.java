@@ -0,0 +1,71 @@
+package com.example.feign.config.feign;
+
+import feign.Logger;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "product-service.logging")
+public class ProductApiLoggingProps {
+    private Logger.Level level = Logger.Level.BASIC;
+
+    private double sampleRate = 0.01;
+
+    /**
+     * Sample rates by ProductApiClient method name, overriding sampleRate.
+     */
+    private Map<String, Double> sampleRates = new HashMap<>();
+
+    private DataSize maxBodySize = DataSize.ofKilobytes(1);
+
+    private Set<String> redactedHeaders = new LinkedHashSet<>(
+            List.of("Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie"));
+
+
+    public Logger.Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Logger.Level level) {
+        this.level = level;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Map<String, Double> getSampleRates() {
+        return sampleRates;
+    }
+
+    public void setSampleRates(Map<String, Double> sampleRates) {
+        this.sampleRates = sampleRates;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public Set<String> getRedactedHeaders() {
+        return redactedHeaders;
+    }
+
+    public void setRedactedHeaders(Set<String> redactedHeaders) {
+        this.redactedHeaders = redactedHeaders;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.feign.config.feign;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the validators (ETag, Last-Modified) and body of GET responses from product-service and
+ * sends them back as If-None-Match / If-Modified-Since. A 304 is turned into a 200 carrying the
+ * stored body, so unchanged reads cost product-service a header check and no serialization, and
+ * the wire carries no body.
+ * <p>
+ * Stored bodies are bounded in bytes, by max-total-size altogether, and a response over
+ * max-body-size is passed through as it streams in and not stored.
+ * <p>
+ * Entries are keyed by URL and Accept header only. That is safe across tokens because the stored
+ * body is reused only after product-service has authenticated the revalidating request and
+ * answered it with 304.
+ * <p>
+ * Publishes product.api.revalidations tagged with result=not-modified|modified.
+ */
+public class ProductApiRevalidation implements Capability {
+
+    private final ProductApiRevalidationProps props;
+
+    private final Cache<String, Validated> validated;
+
+    private final Counter notModified;
+
+    private final Counter modified;
+
+    public ProductApiRevalidation(ProductApiRevalidationProps props, MeterRegistry registry) {
+        this.props = props;
+        this.validated = Caffeine.newBuilder()
+                .maximumWeight(props.getMaxTotalSize().toBytes())
+                .weigher((String key, Validated entry) -> key.length() + entry.body().length)
+                .build();
+        this.notModified = Counter.builder("product.api.revalidations").tag("result", "not-modified").register(registry);
+        this.modified = Counter.builder("product.api.revalidations").tag("result", "modified").register(registry);
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!props.isEnabled()) {
+            return client;
+        }
+        return (request, options) -> {
+            if (request.httpMethod() != Request.HttpMethod.GET) {
+                return client.execute(request, options);
+            }
+            String key = request.url() + " " + request.headers().getOrDefault(HttpHeaders.ACCEPT, List.of());
+            Validated previous = validated.getIfPresent(key);
+            Response response = client.execute(previous == null ? request : previous.conditional(request), options);
+
+            if (previous != null && response.status() == 304) {
+                response.close();
+                notModified.increment();
+                return previous.toResponse(request);
+            }
+            if (response.status() != 200 || response.body() == null
+                    || !(response.headers().containsKey(HttpHeaders.ETAG)
+                    || response.headers().containsKey(HttpHeaders.LAST_MODIFIED))) {
+                return response;
+            }
+            if (previous != null) {
+                modified.increment();
+            }
+            int maxBodySize = (int) Math.min(props.getMaxBodySize().toBytes(), Integer.MAX_VALUE - 1);
+            Integer length = response.body().length();
+            if (length != null && length > maxBodySize) {
+                validated.invalidate(key);
+                return response;
+            }
+            InputStream in = response.body().asInputStream();
+            byte[] body;
+            try {
+                body = in.readNBytes(maxBodySize + 1);
+            } catch (IOException ex) {
+                response.close();
+                throw ex;
+            }
+            if (body.length > maxBodySize) {
+                // Too large to store: the caller reads what was buffered and then the rest of the stream
+                validated.invalidate(key);
+                return response.toBuilder().body(new SequenceInputStream(new ByteArrayInputStream(body), in), null).build();
+            }
+            response.close();
+            Validated current = new Validated(response.headers(), body);
+            validated.put(key, current);
+            return current.toResponse(request);
+        };
+    }
+
+    private record Validated(Map<String, Collection<String>> headers, byte[] body) {
+
+        Request conditional(Request request) {
+            Map<String, Collection<String>> conditionalHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            conditionalHeaders.putAll(request.headers());
+            Collection<String> etag = headers.get(HttpHeaders.ETAG);
+            if (etag != null) {
+                conditionalHeaders.put(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            Collection<String> lastModified = headers.get(HttpHeaders.LAST_MODIFIED);
+            if (lastModified != null) {
+                conditionalHeaders.put(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+            return Request.create(request.httpMethod(), request.url(), conditionalHeaders,
+                    request.body(), request.charset(), request.requestTemplate());
+        }
+
+        Response toResponse(Request request) {
+            return Response.builder()
+                    .status(200)
+                    .reason("OK")
+                    .request(request)
+                    .headers(headers)
+                    .body(body)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.feign.config.feign;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "product-service.revalidation")
+public class ProductApiRevalidationProps {
+    private boolean enabled = true;
+
+    /** Bound on the stored bodies together, least recently used entries are evicted beyond it */
+    private DataSize maxTotalSize = DataSize.ofMegabytes(32);
+
+    /** Larger responses are passed through without being stored or revalidated */
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(DataSize maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.feign.config.feign;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tuning for the pooled Apache HttpClient 5 transport that Spring Cloud OpenFeign builds when
+ * spring.cloud.openfeign.httpclient.hc5.enabled is set. Pool sizes and timeouts come from the
+ * spring.cloud.openfeign.httpclient.* properties. This adds eviction of idle pooled connections,
+ * so connections that product-service or a proxy may already have closed are not reused, and
+ * publishes the pool's leased, available and pending connection gauges.
+ */
+@Configuration
+@ConditionalOnClass(HttpClientBuilderCustomizer.class)
+public class ProductApiTransportConfig {
+
+    @Bean
+    HttpClientBuilderCustomizer idleConnectionEviction(ProductApiTransportProps props) {
+        return builder -> builder.evictIdleConnections(TimeValue.ofMilliseconds(props.getIdleTimeout().toMillis()));
+    }
+
+    @Bean
+    MeterBinder productApiConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "product-service").bindTo(registry);
+            }
+        });
+    }
+}
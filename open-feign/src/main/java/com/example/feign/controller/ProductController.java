@@ -1,14 +1,15 @@
 package com.example.feign.controller;
 
 
-import com.example.feign.config.feign.ProductApiClient;
 import com.example.feign.dto.Product;
+import com.example.feign.service.ProductApiService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -17,22 +18,28 @@ import java.util.List;
 public class ProductController {
 
     @Autowired
-    ProductApiClient apiClient;
+    ProductApiService apiService;
 
     @GetMapping("/products")
     List<Product> getProducts(@RequestHeader("Authorization") String accessToken) {
-        return apiClient.getProducts(accessToken);
+        return apiService.getProducts(accessToken);
+    }
+
+    @GetMapping(value = "/products", params = "ids")
+    List<Product> getProductsByIds(@RequestHeader("Authorization") String accessToken,
+                                   @RequestParam("ids") List<Integer> ids) {
+        return apiService.getProductsByIds(accessToken, ids);
     }
 
     @GetMapping("/products/{id}")
     Product getProductById(@RequestHeader("Authorization") String accessToken,
                            @PathVariable("id") int id) {
-        return apiClient.getProductById(accessToken, id);
+        return apiService.getProductById(accessToken, id);
     }
 
     @PostMapping("/products")
     public void addProduct(@RequestHeader("Authorization") String accessToken,
                            @RequestBody Product product) {
-        apiClient.addProduct(accessToken, product);
+        apiService.addProduct(accessToken, product);
     }
 }
@@ -0,0 +1,37 @@
+package com.example.feign.controller;
+
+
+import com.example.feign.config.feign.ProductApiException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ProductControllerExceptionHandler {
+
+    /**
+     * Pass product-service's own status through to the caller.
+     */
+    @ExceptionHandler(ProductApiException.class)
+    public ProblemDetail handleProductApiException(ProductApiException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(ex.getStatus()), ex.getMessage());
+    }
+
+    /**
+     * Circuit open or bulkhead full: shed the request instead of queueing it.
+     */
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ProblemDetail handleRejected(RuntimeException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(RetryableException.class)
+    public ProblemDetail handleUnreachable(RetryableException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_GATEWAY, ex.getMessage());
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.feign.service;
+
+import com.example.feign.config.feign.ProductApiException;
+import com.example.feign.config.feign.ProductApiResilienceProps;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Guards calls to product-service. Every ProductApiClient method gets its own circuit breaker
+ * and semaphore bulkhead, so a slow or failing product-service sheds load with a 503 instead of
+ * tying up gateway threads. Reads are idempotent and additionally get:
+ * <ul>
+ *     <li>retries with jittered exponential backoff on connection errors and 429/502/503/504</li>
+ *     <li>an optional hedge: if the first attempt has not answered within {@code hedge-delay},
+ *     a second one is started, whichever succeeds first wins and the other is cancelled</li>
+ * </ul>
+ * Circuit breaker, bulkhead and retry state is published through resilience4j's Micrometer
+ * binders, hedges are counted in product.api.hedges.
+ */
+@Component
+public class ProductApiResilience implements AutoCloseable {
+
+    private final ProductApiResilienceProps props;
+
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    private final BulkheadRegistry bulkheads;
+
+    private final RetryRegistry retries;
+
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter hedges;
+
+    public ProductApiResilience(ProductApiResilienceProps props, MeterRegistry registry) {
+        this.props = props;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(props.getFailureRateThreshold())
+                .slowCallDurationThreshold(props.getSlowCallThreshold())
+                .slowCallRateThreshold(props.getSlowCallRateThreshold())
+                .slidingWindowSize(props.getSlidingWindowSize())
+                .minimumNumberOfCalls(Math.min(10, props.getSlidingWindowSize()))
+                .waitDurationInOpenState(props.getOpenStateDuration())
+                // A 4xx is the caller's problem, it says nothing about product-service health
+                .ignoreException(ex -> ex instanceof ProductApiException api && api.getStatus() < 500
+                        // Nor does a hedged call cancelled because the other one answered
+                        || ex instanceof HedgeCancelledException)
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(props.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(props.getMaxAttempts())
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(props.getRetryBackoff(), 2.0, 0.5))
+                .retryOnException(ProductApiResilience::isTransient)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+        TaggedRetryMetrics.ofRetryRegistry(retries).bindTo(registry);
+        this.hedges = Counter.builder("product.api.hedges").register(registry);
+    }
+
+    public <T> T read(String method, Supplier<T> call) {
+        if (!props.isEnabled()) {
+            return call.get();
+        }
+        Supplier<T> attempt = props.getHedgeDelay().isPositive() ? () -> hedged(method, call) : guard(method, call);
+        return Retry.decorateSupplier(retries.retry(method), attempt).get();
+    }
+
+    public <T> T write(String method, Supplier<T> call) {
+        if (!props.isEnabled()) {
+            return call.get();
+        }
+        return guard(method, call).get();
+    }
+
+    private <T> Supplier<T> guard(String method, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(method);
+        Bulkhead bulkhead = bulkheads.bulkhead(method);
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call));
+    }
+
+    /**
+     * Runs the call and, if it has not answered within hedge-delay, a second one. Once either
+     * succeeds the other is cancelled: its thread is interrupted, which aborts a blocked socket
+     * read, so it gives back its bulkhead permit and connection instead of running to the end.
+     */
+    private <T> T hedged(String method, Supplier<T> call) {
+        Attempt<T> primary = new Attempt<>(method, call);
+        try {
+            return primary.result.get(props.getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            hedges.increment();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            primary.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+
+        Attempt<T> hedge = new Attempt<>(method, call);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (Attempt<T> candidate : List.of(primary, hedge)) {
+            Attempt<T> other = candidate == primary ? hedge : primary;
+            candidate.result.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (first.complete(value)) {
+                        other.cancel();
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return first.join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    /**
+     * One guarded call on its own virtual thread. A call that fails because it was cancelled fails
+     * with {@link HedgeCancelledException}, which the circuit breaker ignores.
+     */
+    private final class Attempt<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private final Future<?> task;
+
+        Attempt(String method, Supplier<T> call) {
+            Supplier<T> guarded = guard(method, () -> {
+                try {
+                    return call.get();
+                } catch (RuntimeException ex) {
+                    throw cancelled.get() ? new HedgeCancelledException(ex) : ex;
+                }
+            });
+            task = hedgeExecutor.submit(() -> {
+                try {
+                    result.complete(guarded.get());
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+
+        void cancel() {
+            cancelled.set(true);
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * The losing call of a hedge, cancelled once the other one answered.
+     */
+    static final class HedgeCancelledException extends RuntimeException {
+        HedgeCancelledException(Throwable cause) {
+            super("Cancelled, the other hedged call answered first", cause);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof ProductApiException api) {
+            return api.isTransient();
+        }
+        return error instanceof RetryableException;
+    }
+
+    @Override
+    public void close() {
+        hedgeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.feign.service;
+
+import com.example.feign.config.feign.ProductApiCacheProps;
+import com.example.feign.config.feign.ProductApiClient;
+import com.example.feign.dto.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reads from product-service with request coalescing: while a call for a path is in flight,
+ * identical requests wait for its result instead of making their own call. Optionally the
+ * result is also cached for a short ttl.
+ * <p>
+ * Requests are only shared between callers presenting the same bearer token. The gateway does
+ * not verify tokens, so keying on a claim such as {@code sub} would let a forged token read
+ * another principal's cached response; the key uses a hash of the whole token instead.
+ * <p>
+ * With batching enabled, single product reads that miss the cache go through
+ * {@link ProductBatchCollector} and are merged into multi-get calls.
+ * <p>
+ * Lists are returned unmodifiable, as one instance is shared by every caller that reads it.
+ * <p>
+ * Publishes product.api.reads tagged with source=remote|coalesced|cached.
+ */
+@Service
+public class ProductApiService {
+
+    private final ProductApiClient apiClient;
+
+    private final ProductApiResilience resilience;
+
+    private final ProductBatchCollector batchCollector;
+
+    private final ProductApiCacheProps props;
+
+    private final Cache<String, Object> cache;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter remote;
+
+    private final Counter coalesced;
+
+    private final Counter cached;
+
+    public ProductApiService(ProductApiClient apiClient, ProductApiResilience resilience,
+                             ProductBatchCollector batchCollector, ProductApiCacheProps props,
+                             MeterRegistry registry) {
+        this.apiClient = apiClient;
+        this.resilience = resilience;
+        this.batchCollector = batchCollector;
+        this.props = props;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(props.isEnabled() ? props.getMaximumSize() : 0)
+                .expireAfterWrite(props.getTtl())
+                .build();
+        this.remote = Counter.builder("product.api.reads").tag("source", "remote").register(registry);
+        this.coalesced = Counter.builder("product.api.reads").tag("source", "coalesced").register(registry);
+        this.cached = Counter.builder("product.api.reads").tag("source", "cached").register(registry);
+    }
+
+    public List<Product> getProducts(String accessToken) {
+        return read(key(accessToken, "/products"),
+                () -> unmodifiable(resilience.read("getProducts", () -> apiClient.getProducts(accessToken))));
+    }
+
+    public Product getProductById(String accessToken, int id) {
+        if (batchCollector.isEnabled()) {
+            return read(key(accessToken, "/products/" + id),
+                    () -> batchCollector.getProductById(accessToken, id));
+        }
+        return read(key(accessToken, "/products/" + id),
+                () -> resilience.read("getProductById", () -> apiClient.getProductById(accessToken, id)));
+    }
+
+    public List<Product> getProductsByIds(String accessToken, Collection<Integer> ids) {
+        String path = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "/products?ids=", ""));
+        return read(key(accessToken, path),
+                () -> unmodifiable(resilience.read("getProductsByIds", () -> apiClient.getProductsByIds(accessToken, ids))));
+    }
+
+    public void addProduct(String accessToken, Product product) {
+        resilience.write("addProduct", () -> {
+            apiClient.addProduct(accessToken, product);
+            return null;
+        });
+        cache.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(String key, Supplier<T> call) {
+        if (props.isEnabled()) {
+            Object value = cache.getIfPresent(key);
+            if (value != null) {
+                cached.increment();
+                return (T) value;
+            }
+        }
+        if (!props.isCoalescing()) {
+            return fetch(key, call);
+        }
+
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) join(existing);
+        }
+        try {
+            T value = fetch(key, call);
+            pending.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private <T> T fetch(String key, Supplier<T> call) {
+        remote.increment();
+        T value = call.get();
+        if (props.isEnabled() && value != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * A cached or coalesced list goes to every caller, so none of them may change it. Wrapping
+     * rather than {@code List.copyOf} keeps null elements a decoded body may contain.
+     */
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list == null ? null : Collections.unmodifiableList(list);
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static String key(String accessToken, String path) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + path;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.feign.service;
+
+import com.example.feign.config.feign.ProductApiBatchingProps;
+import com.example.feign.config.feign.ProductApiClient;
+import com.example.feign.config.feign.ProductApiException;
+import com.example.feign.dto.Product;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-batching for single product reads: ids requested with the same bearer token within
+ * {@code window} of each other are fetched with one {@link ProductApiClient#getProductsByIds}
+ * call. A batch is sent when its window ends or when it reaches {@code max-size} ids, whichever
+ * comes first. Ids missing from the response fail with a 404 {@link ProductApiException}, the
+ * same as a single read would.
+ * <p>
+ * Publishes the number of ids per call as product.api.batch.size.
+ */
+@Service
+public class ProductBatchCollector implements AutoCloseable {
+
+    private final ProductApiClient apiClient;
+
+    private final ProductApiResilience resilience;
+
+    private final ProductApiBatchingProps props;
+
+    private final ConcurrentHashMap<String, Batch> open = new ConcurrentHashMap<>();
+
+    private final ExecutorService flushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Executor delayedFlush;
+
+    private final DistributionSummary batchSize;
+
+    public ProductBatchCollector(ProductApiClient apiClient, ProductApiResilience resilience,
+                                 ProductApiBatchingProps props, MeterRegistry registry) {
+        this.apiClient = apiClient;
+        this.resilience = resilience;
+        this.props = props;
+        this.delayedFlush = CompletableFuture.delayedExecutor(
+                props.getWindow().toNanos(), TimeUnit.NANOSECONDS, flushExecutor);
+        this.batchSize = DistributionSummary.builder("product.api.batch.size").register(registry);
+    }
+
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    public Product getProductById(String accessToken, int id) {
+        CompletableFuture<Product> result;
+        do {
+            Batch batch = open.computeIfAbsent(accessToken, this::openBatch);
+            result = batch.add(id);
+        } while (result == null);
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private Batch openBatch(String accessToken) {
+        Batch batch = new Batch(accessToken);
+        delayedFlush.execute(batch::flush);
+        return batch;
+    }
+
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+    }
+
+    private final class Batch {
+
+        private final String accessToken;
+
+        private final Map<Integer, CompletableFuture<Product>> waiters = new LinkedHashMap<>();
+
+        private boolean sealed;
+
+        Batch(String accessToken) {
+            this.accessToken = accessToken;
+        }
+
+        /**
+         * Joins this batch, or returns null once it has been sealed so the caller opens a new one.
+         */
+        CompletableFuture<Product> add(int id) {
+            CompletableFuture<Product> result;
+            boolean full;
+            synchronized (this) {
+                if (sealed) {
+                    return null;
+                }
+                result = waiters.computeIfAbsent(id, ignored -> new CompletableFuture<>());
+                full = waiters.size() >= props.getMaxSize();
+            }
+            if (full) {
+                flushExecutor.execute(this::flush);
+            }
+            return result;
+        }
+
+        void flush() {
+            synchronized (this) {
+                if (sealed) {
+                    return;
+                }
+                sealed = true;
+            }
+            open.remove(accessToken, this);
+            batchSize.record(waiters.size());
+
+            List<Integer> ids = new ArrayList<>(waiters.keySet());
+            try {
+                Map<Integer, Product> products = resilience
+                        .read("getProductsByIds", () -> apiClient.getProductsByIds(accessToken, ids))
+                        .stream()
+                        .collect(Collectors.toMap(Product::id, Function.identity(), (a, b) -> a));
+                waiters.forEach((id, waiter) -> {
+                    Product product = products.get(id);
+                    if (product != null) {
+                        waiter.complete(product);
+                    } else {
+                        waiter.completeExceptionally(new ProductApiException(404,
+                                "product-service has no product " + id));
+                    }
+                });
+            } catch (RuntimeException ex) {
+                waiters.values().forEach(waiter -> waiter.completeExceptionally(ex));
+            } catch (Error ex) {
+                waiters.values().forEach(waiter -> waiter.completeExceptionally(ex));
+                throw ex;
+            }
+        }
+    }
+}
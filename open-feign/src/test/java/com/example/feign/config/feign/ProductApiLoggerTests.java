@@ -0,0 +1,113 @@
+package com.example.feign.config.feign;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductApiLoggerTests {
+
+    private static final String CONFIG_KEY = "ProductApiClient#getProductById(String,int)";
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ProductApiClient.class);
+
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+
+    private final ProductApiLoggingProps props = new ProductApiLoggingProps();
+
+    @BeforeEach
+    void setUp() {
+        events.start();
+        logger.addAppender(events);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(events);
+    }
+
+    @Test
+    void sampledCallIsOneEventWithRedactedHeadersAndCappedBody() throws Exception {
+        props.getSampleRates().put("getProductById", 1.0);
+        props.setMaxBodySize(DataSize.ofBytes(8));
+
+        Response response = new ProductApiLogger(props)
+                .logAndRebufferResponse(CONFIG_KEY, feign.Logger.Level.FULL, response(200), 3);
+
+        assertThat(events.list).hasSize(1);
+        Map<String, Object> fields = fields(events.list.get(0));
+        assertThat(fields).containsEntry("client", "getProductById").containsEntry("status", 200);
+        assertThat((String) fields.get("requestHeaders")).contains("Authorization: [redacted]");
+        assertThat(fields.get("responseBody")).isEqualTo("{\"id\":1,...[12 bytes]");
+        assertThat(Util.toString(response.body().asReader(StandardCharsets.UTF_8))).isEqualTo("{\"id\":1,\"a\"}");
+    }
+
+    @Test
+    void largeBodyIsNotBufferedBeyondTheCap() throws Exception {
+        props.getSampleRates().put("getProductById", 1.0);
+        props.setMaxBodySize(DataSize.ofBytes(8));
+        byte[] content = "x".repeat(1 << 20).getBytes(StandardCharsets.UTF_8);
+        AtomicInteger read = new AtomicInteger();
+        InputStream body = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int n = super.read(b, off, len);
+                read.addAndGet(Math.max(n, 0));
+                return n;
+            }
+        };
+        Response unsized = response(200).toBuilder().body(body, null).build();
+
+        Response response = new ProductApiLogger(props)
+                .logAndRebufferResponse(CONFIG_KEY, feign.Logger.Level.FULL, unsized, 3);
+
+        assertThat(read).hasValueLessThanOrEqualTo(9);
+        assertThat(fields(events.list.get(0)).get("responseBody")).isEqualTo("xxxxxxxx...[over 8 bytes]");
+        assertThat(Util.toByteArray(response.body().asInputStream())).isEqualTo(content);
+    }
+
+    @Test
+    void unsampledCallIsOnlyLoggedWhenItFails() throws Exception {
+        props.setSampleRate(0);
+        ProductApiLogger productApiLogger = new ProductApiLogger(props);
+
+        productApiLogger.logAndRebufferResponse(CONFIG_KEY, feign.Logger.Level.FULL, response(200), 3);
+        productApiLogger.logAndRebufferResponse(CONFIG_KEY, feign.Logger.Level.FULL, response(503), 3);
+
+        assertThat(events.list).extracting(event -> fields(event).get("status")).containsExactly(503);
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+
+    private static Response response(int status) {
+        Map<String, Collection<String>> headers = Map.of("Authorization", List.of("Bearer secret"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost:9001/products/1", headers,
+                null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of("Content-Type", List.of("application/json")))
+                .body("{\"id\":1,\"a\"}", StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.feign.config.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductApiRevalidationTests {
+
+    private static final String BODY = "{\"id\":1,\"title\":\"Mens Cotton Jacket\"}";
+
+    private final List<Request> sent = new ArrayList<>();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Client productService = (request, options) -> {
+        sent.add(request);
+        boolean fresh = request.headers().getOrDefault("If-None-Match", List.of()).contains("\"v1\"");
+        return Response.builder()
+                .status(fresh ? 304 : 200)
+                .request(request)
+                .headers(Map.of("ETag", List.of("\"v1\"")))
+                .body(fresh ? null : BODY.getBytes(StandardCharsets.UTF_8))
+                .build();
+    };
+
+    @Test
+    void unchangedResponseIsServedFromStoredBodyAfter304() throws Exception {
+        Client client = new ProductApiRevalidation(new ProductApiRevalidationProps(), registry).enrich(productService);
+
+        Response first = client.execute(get(), new Request.Options());
+        Response second = client.execute(get(), new Request.Options());
+
+        assertThat(sent.get(0).headers()).doesNotContainKey("If-None-Match");
+        assertThat(sent.get(1).headers().get("If-None-Match")).containsExactly("\"v1\"");
+        assertThat(second.status()).isEqualTo(200);
+        assertThat(Util.toString(second.body().asReader(StandardCharsets.UTF_8)))
+                .isEqualTo(Util.toString(first.body().asReader(StandardCharsets.UTF_8)))
+                .isEqualTo(BODY);
+        assertThat(registry.counter("product.api.revalidations", "result", "not-modified").count()).isEqualTo(1);
+    }
+
+    @Test
+    void responseOverMaxBodySizeIsPassedThroughAndNotStored() throws Exception {
+        ProductApiRevalidationProps props = new ProductApiRevalidationProps();
+        props.setMaxBodySize(DataSize.ofBytes(8));
+        Client client = new ProductApiRevalidation(props, registry).enrich(productService);
+
+        Response first = client.execute(get(), new Request.Options());
+        client.execute(get(), new Request.Options());
+
+        assertThat(Util.toString(first.body().asReader(StandardCharsets.UTF_8))).isEqualTo(BODY);
+        assertThat(sent.get(1).headers()).doesNotContainKey("If-None-Match");
+    }
+
+    private static Request get() {
+        Map<String, Collection<String>> headers = Map.of("Authorization", List.of("Bearer a"));
+        return Request.create(Request.HttpMethod.GET, "http://localhost:9001/products/1", headers,
+                null, StandardCharsets.UTF_8, null);
+    }
+}
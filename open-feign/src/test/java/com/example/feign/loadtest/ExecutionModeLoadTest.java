@@ -0,0 +1,39 @@
+package com.example.feign.loadtest;
+
+import com.example.feign.OpenFeignApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+/**
+ * Compares the gateway on platform threads with the gateway on virtual threads at high
+ * concurrency, in front of a product-service stub that takes a fixed time per call.
+ * <p>
+ * Arguments: concurrency, seconds per run, stub latency in ms (defaults 1000, 20, 50).
+ * {@code mvn -Pload-test test-compile exec:exec -Dload-test.args="2000 30 100"}
+ */
+public class ExecutionModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        Duration latency = Duration.ofMillis(args.length > 2 ? Integer.parseInt(args[2]) : 50);
+
+        try (ProductServiceStub stub = new ProductServiceStub(latency)) {
+            LoadGenerator load = new LoadGenerator();
+            for (boolean virtual : new boolean[]{false, true}) {
+                try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(OpenFeignApplication.class)
+                        .run("--server.port=0",
+                                "--product-service.url=" + stub.url(),
+                                "--spring.threads.virtual.enabled=" + virtual)) {
+                    String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+                    load.run(url, concurrency, Duration.ofSeconds(5));
+                    LoadGenerator.Result result = load.run(url, concurrency, duration);
+                    System.out.printf("%-8s threads, %d clients: %s%n",
+                            virtual ? "virtual" : "platform", concurrency, result);
+                }
+            }
+        }
+    }
+}
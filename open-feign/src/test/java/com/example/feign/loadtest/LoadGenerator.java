@@ -0,0 +1,107 @@
+package com.example.feign.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-model load: {@code concurrency} virtual-thread clients each send GET /products/{id}
+ * back to back for the given duration and record every response time.
+ */
+public class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public Result run(String baseUrl, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> worker(baseUrl, deadline)));
+            }
+        }
+        long requests = 0;
+        long errors = 0;
+        List<long[]> samples = new ArrayList<>(concurrency);
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            samples.add(latencies);
+            requests += latencies.length;
+        }
+        long[] all = new long[(int) requests];
+        int offset = 0;
+        for (long[] latencies : samples) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        for (long latency : all) {
+            if (latency < 0) {
+                errors++;
+            }
+        }
+        all = Arrays.stream(all).filter(latency -> latency >= 0).sorted().toArray();
+        return new Result(requests, errors, duration, all);
+    }
+
+    private long[] worker(String baseUrl, long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            int id = ThreadLocalRandom.current().nextInt(1, 1001);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+                    .header("Authorization", "Bearer load-test")
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            long latency;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                latency = response.statusCode() == 200 ? System.nanoTime() - start : -1;
+            } catch (Exception ex) {
+                latency = -1;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * Latencies are sorted nanoseconds of the successful requests.
+     */
+    public record Result(long requests, long errors, Duration duration, long[] latencies) {
+
+        public double throughput() {
+            return requests / (duration.toMillis() / 1000.0);
+        }
+
+        public double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "%10.0f req/s  errors %6d  p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms".formatted(
+                    throughput(), errors, percentileMillis(50), percentileMillis(90),
+                    percentileMillis(99), percentileMillis(99.9));
+        }
+    }
+}
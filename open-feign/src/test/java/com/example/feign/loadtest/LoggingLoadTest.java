@@ -0,0 +1,60 @@
+package com.example.feign.loadtest;
+
+import com.example.feign.OpenFeignApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Gateway throughput for each way of logging calls to product-service: no logging, FULL logging of
+ * every call (headers and bodies, as the client used to be configured), FULL logging of 1% of calls,
+ * and the default BASIC logging of 1% of calls. Log output goes to the console like in production,
+ * so redirect stdout to a file to keep the terminal out of the measurement. All modes run twice and
+ * the second round is reported, so JIT warmup does not favour the modes that run last.
+ * <p>
+ * Arguments: concurrency, seconds per run (defaults 100, 20).
+ * {@code mvn -Pload-test test-compile exec:exec -Dload-test.main=com.example.feign.loadtest.LoggingLoadTest}
+ */
+public class LoggingLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+
+        Map<String, String[]> modes = new LinkedHashMap<>();
+        modes.put("none", new String[]{"--product-service.logging.level=NONE"});
+        modes.put("full-every", new String[]{"--product-service.logging.level=FULL",
+                "--product-service.logging.sample-rate=1"});
+        modes.put("full-1%", new String[]{"--product-service.logging.level=FULL",
+                "--product-service.logging.sample-rate=0.01"});
+        modes.put("basic-1%", new String[]{"--product-service.logging.level=BASIC",
+                "--product-service.logging.sample-rate=0.01"});
+
+        Map<String, LoadGenerator.Result> results = new LinkedHashMap<>();
+        try (ProductServiceStub stub = new ProductServiceStub(Duration.ofMillis(1))) {
+            LoadGenerator load = new LoadGenerator();
+            for (int round = 0; round < 2; round++) {
+                for (Map.Entry<String, String[]> mode : modes.entrySet()) {
+                    String[] gatewayArgs = Stream.concat(
+                            Stream.of("--server.port=0", "--product-service.url=" + stub.url(),
+                                    // Every request has to reach product-service and its logger
+                                    "--product-service.cache.coalescing=false",
+                                    "--product-service.revalidation.enabled=false"),
+                            Arrays.stream(mode.getValue())).toArray(String[]::new);
+                    try (ConfigurableApplicationContext gateway =
+                                 new SpringApplicationBuilder(OpenFeignApplication.class).run(gatewayArgs)) {
+                        String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+                        load.run(url, concurrency, Duration.ofSeconds(5));
+                        results.put(mode.getKey(), load.run(url, concurrency, duration));
+                    }
+                }
+            }
+        }
+        results.forEach((mode, result) -> System.out.printf("%-12s %d clients: %s%n", mode, concurrency, result));
+    }
+}
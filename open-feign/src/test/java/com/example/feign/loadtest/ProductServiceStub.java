@@ -0,0 +1,86 @@
+package com.example.feign.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for product-service on a local port. Every request is answered after a fixed
+ * latency on its own virtual thread, so the stub is never the bottleneck of a load test.
+ * Faults can be injected: a share of requests answered with 503 and a share answered only
+ * after a much longer latency, to produce a heavy tail.
+ */
+public class ProductServiceStub implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final Duration latency;
+
+    private final double errorRate;
+
+    private final double slowRate;
+
+    private final Duration slowLatency;
+
+    public ProductServiceStub(Duration latency) throws IOException {
+        this(latency, 0, 0, Duration.ZERO);
+    }
+
+    public ProductServiceStub(Duration latency, double errorRate, double slowRate, Duration slowLatency)
+            throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.slowRate = slowRate;
+        this.slowLatency = slowLatency;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.createContext("/products", this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        try {
+            Thread.sleep(roll < slowRate ? slowLatency : latency);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (roll >= slowRate && roll < slowRate + errorRate) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        String body = path.equals("/products")
+                ? "[" + product(1) + "," + product(2) + "]"
+                : product(Integer.parseInt(path.substring("/products/".length())));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String product(int id) {
+        return """
+                {"id":%d,"title":"Product %d","description":"Lightweight fabric","image":"https://fakestoreapi.com/img/%d.jpg"}\
+                """.formatted(id, id, id);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
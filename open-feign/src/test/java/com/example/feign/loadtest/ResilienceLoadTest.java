@@ -0,0 +1,47 @@
+package com.example.feign.loadtest;
+
+import com.example.feign.OpenFeignApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gateway tail latency with and without the resilience layer, against a product-service stub
+ * that answers 2% of requests with 503 and another 2% only after a second.
+ * <p>
+ * Arguments: concurrency, seconds per run (defaults 100, 20).
+ * {@code mvn -Pload-test test-compile exec:exec -Dload-test.main=com.example.feign.loadtest.ResilienceLoadTest}
+ */
+public class ResilienceLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+
+        Map<String, String> modes = new LinkedHashMap<>();
+        modes.put("unguarded", "--product-service.resilience.enabled=false");
+        modes.put("retry", "--product-service.resilience.hedge-delay=0");
+        modes.put("retry+hedge", "--product-service.resilience.hedge-delay=50ms");
+
+        try (ProductServiceStub stub = new ProductServiceStub(Duration.ofMillis(10), 0.02, 0.02, Duration.ofSeconds(1))) {
+            LoadGenerator load = new LoadGenerator();
+            for (Map.Entry<String, String> mode : modes.entrySet()) {
+                try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(OpenFeignApplication.class)
+                        .run("--server.port=0",
+                                "--product-service.url=" + stub.url(),
+                                // Coalescing would hide the faults behind shared calls
+                                "--product-service.cache.coalescing=false",
+                                "--spring.threads.virtual.enabled=true",
+                                mode.getValue())) {
+                    String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+                    load.run(url, concurrency, Duration.ofSeconds(5));
+                    LoadGenerator.Result result = load.run(url, concurrency, duration);
+                    System.out.printf("%-12s %d clients: %s%n", mode.getKey(), concurrency, result);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.feign.loadtest;
+
+import com.example.feign.OpenFeignApplication;
+import feign.Client;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Gateway p50/p99 latency for each Feign transport against a local product-service stub:
+ * the JDK HttpURLConnection default, pooled Apache HttpClient 5 and the JDK HTTP/2 client.
+ * <p>
+ * Arguments: concurrency, seconds per run, stub latency in ms (defaults 200, 20, 5).
+ * {@code mvn -Pload-test test-compile exec:exec -Dload-test.main=com.example.feign.loadtest.TransportLoadTest}
+ */
+public class TransportLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Integer.parseInt(args[1]) : 20);
+        Duration latency = Duration.ofMillis(args.length > 2 ? Integer.parseInt(args[2]) : 5);
+
+        Map<String, String[]> transports = new LinkedHashMap<>();
+        transports.put("default", new String[]{"--spring.cloud.openfeign.httpclient.hc5.enabled=false"});
+        transports.put("hc5", new String[]{"--spring.cloud.openfeign.httpclient.hc5.enabled=true"});
+        transports.put("http2", new String[]{"--spring.cloud.openfeign.httpclient.hc5.enabled=false",
+                "--spring.cloud.openfeign.http2client.enabled=true"});
+
+        try (ProductServiceStub stub = new ProductServiceStub(latency)) {
+            LoadGenerator load = new LoadGenerator();
+            for (Map.Entry<String, String[]> transport : transports.entrySet()) {
+                String[] gatewayArgs = Stream.concat(
+                        Stream.of("--server.port=0", "--product-service.url=" + stub.url()),
+                        Arrays.stream(transport.getValue())).toArray(String[]::new);
+                try (ConfigurableApplicationContext gateway =
+                             new SpringApplicationBuilder(OpenFeignApplication.class).run(gatewayArgs)) {
+                    String client = gateway.getBeanProvider(Client.class).stream()
+                            .map(bean -> bean.getClass().getSimpleName())
+                            .findFirst().orElse("Client.Default");
+                    String url = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+                    load.run(url, concurrency, Duration.ofSeconds(5));
+                    LoadGenerator.Result result = load.run(url, concurrency, duration);
+                    System.out.printf("%-8s %-22s %d clients: %s%n", transport.getKey(), client, concurrency, result);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.feign.service;
+
+import com.example.feign.config.feign.ProductApiException;
+import com.example.feign.config.feign.ProductApiResilienceProps;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductApiResilienceTests {
+
+    private final ProductApiResilienceProps props = new ProductApiResilienceProps();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retriesTransientFailuresOfReads() {
+        props.setRetryBackoff(Duration.ofMillis(1));
+        ProductApiResilience resilience = new ProductApiResilience(props, registry);
+
+        String result = resilience.read("getProductById", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ProductApiException(503, "unavailable");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryClientErrorsOrWrites() {
+        ProductApiResilience resilience = new ProductApiResilience(props, registry);
+
+        assertThatThrownBy(() -> resilience.read("getProductById", () -> {
+            calls.incrementAndGet();
+            throw new ProductApiException(404, "not found");
+        })).isInstanceOf(ProductApiException.class);
+        assertThatThrownBy(() -> resilience.write("addProduct", () -> {
+            calls.incrementAndGet();
+            throw new ProductApiException(503, "unavailable");
+        })).isInstanceOf(ProductApiException.class);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void hedgeAnswersWhenFirstAttemptIsSlow() {
+        props.setHedgeDelay(Duration.ofMillis(20));
+        ProductApiResilience resilience = new ProductApiResilience(props, registry);
+
+        long start = System.nanoTime();
+        String result = resilience.read("getProductById", () -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(Duration.ofSeconds(2));
+                return "slow";
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(registry.counter("product.api.hedges").count()).isEqualTo(1);
+    }
+
+    @Test
+    void losingHedgeIsCancelledAndGivesBackItsPermit() throws InterruptedException {
+        props.setHedgeDelay(Duration.ofMillis(20));
+        ProductApiResilience resilience = new ProductApiResilience(props, registry);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        String result = resilience.read("getProductById", () -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(10));
+                } catch (InterruptedException ex) {
+                    cancelled.countDown();
+                    throw new IllegalStateException(ex);
+                }
+                return "slow";
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(cancelled.await(1, TimeUnit.SECONDS)).isTrue();
+        Gauge permits = registry.get("resilience4j.bulkhead.available.concurrent.calls").tag("name", "getProductById").gauge();
+        for (int i = 0; i < 100 && permits.value() < props.getMaxConcurrentCalls(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(permits.value()).isEqualTo(props.getMaxConcurrentCalls());
+        assertThat(registry.get("resilience4j.circuitbreaker.calls").tag("kind", "failed").timer().count()).isZero();
+    }
+
+    @Test
+    void openCircuitRejectsWithoutCallingProductService() {
+        props.setMaxAttempts(1);
+        props.setSlidingWindowSize(10);
+        ProductApiResilience resilience = new ProductApiResilience(props, registry);
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> resilience.read("getProducts", () -> {
+                calls.incrementAndGet();
+                throw new ProductApiException(500, "boom");
+            })).isInstanceOf(ProductApiException.class);
+        }
+
+        assertThatThrownBy(() -> resilience.read("getProducts", () -> calls.incrementAndGet()))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(calls).hasValue(10);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
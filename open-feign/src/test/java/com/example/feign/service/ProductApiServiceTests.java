@@ -0,0 +1,192 @@
+package com.example.feign.service;
+
+import com.example.feign.config.feign.ProductApiBatchingProps;
+import com.example.feign.config.feign.ProductApiCacheProps;
+import com.example.feign.config.feign.ProductApiClient;
+import com.example.feign.config.feign.ProductApiException;
+import com.example.feign.config.feign.ProductApiResilienceProps;
+import com.example.feign.dto.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductApiServiceTests {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private volatile Error error;
+
+    private final ProductApiClient client = new ProductApiClient() {
+        @Override
+        public List<Product> getProducts(String accessToken) {
+            return new ArrayList<>(List.of(getProductById(accessToken, 1)));
+        }
+
+        @Override
+        public Product getProductById(String accessToken, int id) {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (error != null) {
+                throw error;
+            }
+            return new Product(id, "Product " + id, "Lightweight fabric", null);
+        }
+
+        @Override
+        public List<Product> getProductsByIds(String accessToken, Collection<Integer> ids) {
+            batchCalls.incrementAndGet();
+            if (error != null) {
+                throw error;
+            }
+            return ids.stream()
+                    .filter(id -> id > 0)
+                    .map(id -> new Product(id, "Product " + id, "Lightweight fabric", null))
+                    .toList();
+        }
+
+        @Override
+        public void addProduct(String accessToken, Product product) {
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentIdenticalReadsShareOneCall() throws Exception {
+        ProductApiService service = new ProductApiService(client, resilience(), collector(new ProductApiBatchingProps()),
+                new ProductApiCacheProps(), registry);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Product>> results = List.of(
+                    executor.submit(() -> service.getProductById("Bearer a", 7)),
+                    executor.submit(() -> service.getProductById("Bearer a", 7)),
+                    executor.submit(() -> service.getProductById("Bearer a", 7)));
+            while (registry.counter("product.api.reads", "source", "coalesced").count() < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Product> result : results) {
+                assertThat(result.get().id()).isEqualTo(7);
+            }
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void anErrorInASharedCallReachesEveryWaiter() throws Exception {
+        error = new StackOverflowError("too deep");
+        ProductApiBatchingProps batching = new ProductApiBatchingProps();
+        batching.setEnabled(true);
+        batching.setWindow(Duration.ofMillis(50));
+        ProductApiService coalescing = new ProductApiService(client, resilience(), collector(new ProductApiBatchingProps()),
+                new ProductApiCacheProps(), registry);
+        ProductApiService batched = new ProductApiService(client, resilience(), collector(batching),
+                new ProductApiCacheProps(), registry);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Product>> results = List.of(
+                    executor.submit(() -> coalescing.getProductById("Bearer a", 7)),
+                    executor.submit(() -> coalescing.getProductById("Bearer a", 7)),
+                    executor.submit(() -> batched.getProductById("Bearer b", 1)),
+                    executor.submit(() -> batched.getProductById("Bearer b", 2)));
+            while (registry.counter("product.api.reads", "source", "coalesced").count() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Product> result : results) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(StackOverflowError.class);
+            }
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(batchCalls).hasValue(1);
+    }
+
+    @Test
+    void readsAreNotSharedAcrossTokens() {
+        release.countDown();
+        ProductApiCacheProps props = new ProductApiCacheProps();
+        props.setEnabled(true);
+        ProductApiService service = new ProductApiService(client, resilience(), collector(new ProductApiBatchingProps()),
+                props, registry);
+
+        service.getProductById("Bearer a", 7);
+        service.getProductById("Bearer a", 7);
+        service.getProductById("Bearer b", 7);
+
+        assertThat(calls).hasValue(2);
+        assertThat(registry.counter("product.api.reads", "source", "cached").count()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedListsCannotBeChangedByACaller() {
+        release.countDown();
+        ProductApiCacheProps props = new ProductApiCacheProps();
+        props.setEnabled(true);
+        ProductApiService service = new ProductApiService(client, resilience(), collector(new ProductApiBatchingProps()),
+                props, registry);
+
+        List<Product> first = service.getProducts("Bearer a");
+        assertThatThrownBy(first::clear).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> service.getProductsByIds("Bearer a", List.of(1)).add(null))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        assertThat(service.getProducts("Bearer a")).extracting(Product::id).containsExactly(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void singleReadsWithinTheWindowAreBatched() throws Exception {
+        ProductApiBatchingProps batching = new ProductApiBatchingProps();
+        batching.setEnabled(true);
+        batching.setWindow(Duration.ofMillis(50));
+        ProductApiService service = new ProductApiService(client, resilience(), collector(batching),
+                new ProductApiCacheProps(), registry);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Product> first = executor.submit(() -> service.getProductById("Bearer a", 1));
+            Future<Product> second = executor.submit(() -> service.getProductById("Bearer a", 2));
+            Future<Product> missing = executor.submit(() -> service.getProductById("Bearer a", -1));
+
+            assertThat(first.get().id()).isEqualTo(1);
+            assertThat(second.get().id()).isEqualTo(2);
+            assertThatThrownBy(missing::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ProductApiException.class);
+        }
+        assertThat(batchCalls).hasValue(1);
+        assertThat(calls).hasValue(0);
+        assertThat(registry.summary("product.api.batch.size").totalAmount()).isEqualTo(3);
+    }
+
+    private ProductBatchCollector collector(ProductApiBatchingProps props) {
+        return new ProductBatchCollector(client, resilience(), props, registry);
+    }
+
+    private ProductApiResilience resilience() {
+        return new ProductApiResilience(new ProductApiResilienceProps(), registry);
+    }
+}
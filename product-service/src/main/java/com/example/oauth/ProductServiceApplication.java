@@ -1,7 +1,14 @@
 package com.example.oauth;
 
+import com.example.oauth.config.RefreshingJwkSource;
+import com.example.oauth.controller.ProductController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.AbstractSecurityWebApplicationInitializer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 @EnableMethodSecurity
@@ -12,4 +19,17 @@ public class ProductServiceApplication {
 		SpringApplication.run(ProductServiceApplication.class, args);
 	}
 
+	/**
+	 * With spring.main.lazy-initialization (the startup profile) the request path is still built at
+	 * startup: the security filter chain, the JWT decoder and its keys, and the controller with the
+	 * service and store behind it. Only what requests do not need waits for first use.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerRequestPath() {
+		LazyInitializationExcludeFilter types = LazyInitializationExcludeFilter.forBeanTypes(
+				SecurityFilterChain.class, JwtDecoder.class, RefreshingJwkSource.class, ProductController.class);
+		return (name, definition, type) -> AbstractSecurityWebApplicationInitializer.DEFAULT_FILTER_NAME.equals(name)
+				|| types.isExcluded(name, definition, type);
+	}
+
 }
@@ -0,0 +1,91 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "jwt.jwk")
+public class JwkSourceProps {
+
+    public enum Source {
+        /** Fetch from spring.security.oauth2.resourceserver.jwt.jwk-set-uri */
+        REMOTE,
+        /** Read from a JWK set file at {@code location} */
+        FILE,
+        /** Parse the JWK set JSON given in {@code value} */
+        INLINE
+    }
+
+    private Source source = Source.REMOTE;
+
+    private String location;
+
+    private String value;
+
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(2);
+
+
+    public Source getSource() {
+        return source;
+    }
+
+    public void setSource(Source source) {
+        this.source = source;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getMinRefreshInterval() {
+        return minRefreshInterval;
+    }
+
+    public void setMinRefreshInterval(Duration minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+}
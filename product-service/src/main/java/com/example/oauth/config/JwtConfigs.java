@@ -1,18 +1,30 @@
 package com.example.oauth.config;
 
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
 import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
+import java.io.File;
+import java.net.URI;
 import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 
 @Configuration
@@ -21,16 +33,91 @@ public class JwtConfigs {
     @Autowired
     private ResourceServerPropertiesConfig config;
 
+    @Autowired
+    private JwtCacheProps cacheProps;
+
+    @Autowired
+    private JwkSourceProps jwkProps;
+
+    /**
+     * Remote keys may be briefly unreachable, so startup goes ahead with an empty set that is filled
+     * on the next refresh. File and inline keys can only be missing through misconfiguration, so the
+     * application refuses to start rather than rejecting every token.
+     */
     @Bean
-    JwtDecoder jwtDecoder() {
-        NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(config.getJwkSetUri()).build();
-        OAuth2TokenValidator<Jwt> jwtValidator = new DelegatingOAuth2TokenValidator<>(
+    RefreshingJwkSource jwkSource() {
+        Callable<JWKSet> loader = switch (jwkProps.getSource()) {
+            case REMOTE -> () -> JWKSet.load(URI.create(config.getJwkSetUri()).toURL(),
+                    (int) jwkProps.getConnectTimeout().toMillis(),
+                    (int) jwkProps.getReadTimeout().toMillis(),
+                    1024 * 1024);
+            case FILE -> fileLoader(jwkProps.getLocation());
+            case INLINE -> () -> JWKSet.parse(jwkProps.getValue());
+        };
+        RefreshingJwkSource source = new RefreshingJwkSource(loader, jwkProps.getMinRefreshInterval());
+        return switch (jwkProps.getSource()) {
+            case REMOTE -> source.start(jwkProps.getRefreshInterval());
+            case FILE -> source.startOrFail(jwkProps.getRefreshInterval(), "jwt.jwk.location=" + jwkProps.getLocation());
+            case INLINE -> source.startOrFail(Duration.ZERO, "jwt.jwk.value");
+        };
+    }
+
+    static Callable<JWKSet> fileLoader(String location) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalStateException("jwt.jwk.location must be set when jwt.jwk.source=FILE");
+        }
+        File file = new File(location);
+        if (!file.isFile() || !file.canRead()) {
+            throw new IllegalStateException("jwt.jwk.location " + file.getAbsolutePath() + " is not a readable file");
+        }
+        return () -> JWKSet.load(file);
+    }
+
+    /**
+     * Decoding is timed as jwt.decode either way, tagged cache=hit|miss by the caching decoder and
+     * cache=disabled without it. The validator chain is timed on its own as jwt.validate, so the
+     * signature check is what remains of a decode.
+     */
+    @Bean
+    JwtDecoder jwtDecoder(RefreshingJwkSource jwkSource, MeterRegistry registry) {
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor(jwkSource));
+        decoder.setJwtValidator(timed(jwtValidator(config), registry));
+        if (!cacheProps.isEnabled()) {
+            Timer timer = Timer.builder("jwt.decode").tag("cache", "disabled").register(registry);
+            return token -> timer.record(() -> decoder.decode(token));
+        }
+        return new CachingJwtDecoder(decoder, cacheProps.getMaximumSize(), cacheProps.getMaxTtl(), registry);
+    }
+
+    /**
+     * Same processor NimbusJwtDecoder.withJwkSetUri builds, but backed by a local JWK source. The
+     * default typ check stays, so only tokens typed JWT or untyped are accepted. Claims are checked
+     * by {@link #jwtValidator}, so Nimbus' own claim checks are disabled.
+     */
+    public static DefaultJWTProcessor<SecurityContext> jwtProcessor(RefreshingJwkSource jwkSource) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        return processor;
+    }
+
+    public static OAuth2TokenValidator<Jwt> jwtValidator(ResourceServerPropertiesConfig config) {
+        return new DelegatingOAuth2TokenValidator<>(
                 new JwtTimestampValidator(Duration.ofSeconds(60)),
                 new JwtIssuerValidator(config.getIssuerUri()),
                 new AudienceValidator(config.getAudience())
         );
-        decoder.setJwtValidator(jwtValidator);
-        return decoder;
+    }
+
+    static OAuth2TokenValidator<Jwt> timed(OAuth2TokenValidator<Jwt> validator, MeterRegistry registry) {
+        Timer valid = Timer.builder("jwt.validate").tag("result", "valid").register(registry);
+        Timer invalid = Timer.builder("jwt.validate").tag("result", "invalid").register(registry);
+        return jwt -> {
+            long start = System.nanoTime();
+            OAuth2TokenValidatorResult result = validator.validate(jwt);
+            (result.hasErrors() ? invalid : valid).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
     }
 
 }
@@ -0,0 +1,49 @@
+package com.example.oauth.config;
+
+import com.example.oauth.dto.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+public class ProductCacheConfig {
+
+    /**
+     * Products by id. An empty Optional records an id that does not exist, so repeated
+     * lookups of unknown ids are answered without going to the database.
+     * Hit, miss and eviction counts are published as cache.* metrics under the name "products".
+     */
+    @Bean
+    Cache<Integer, Optional<ProductDto>> productCache(ProductCacheProps props, MeterRegistry registry) {
+        long maximumSize = props.isEnabled() ? props.getMaximumSize() : 0;
+        Cache<Integer, Optional<ProductDto>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Integer, Optional<ProductDto>>() {
+                    @Override
+                    public long expireAfterCreate(Integer id, Optional<ProductDto> product, long currentTime) {
+                        return (product.isPresent() ? props.getTtl() : props.getNotFoundTtl()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer id, Optional<ProductDto> product,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, product, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer id, Optional<ProductDto> product,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+}
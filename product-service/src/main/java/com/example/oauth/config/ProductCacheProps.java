@@ -0,0 +1,51 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.cache")
+public class ProductCacheProps {
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private Duration notFoundTtl = Duration.ofSeconds(30);
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNotFoundTtl() {
+        return notFoundTtl;
+    }
+
+    public void setNotFoundTtl(Duration notFoundTtl) {
+        this.notFoundTtl = notFoundTtl;
+    }
+}
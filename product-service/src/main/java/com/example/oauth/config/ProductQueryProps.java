@@ -0,0 +1,40 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.query")
+public class ProductQueryProps {
+    private int defaultLimit = 50;
+
+    private int maxLimit = 500;
+
+    /** Rows read per query while streaming the unpaginated listing */
+    private int streamPageSize = 500;
+
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public int getStreamPageSize() {
+        return streamPageSize;
+    }
+
+    public void setStreamPageSize(int streamPageSize) {
+        this.streamPageSize = streamPageSize;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.response-cache")
+public class ProductResponseCacheProps {
+    private boolean enabled = true;
+
+    /** Encoded bodies kept altogether, gzipped copies included */
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /** Also keep a gzipped copy of each body, served to clients that accept gzip */
+    private boolean gzip = false;
+
+    /** Smaller bodies are not worth compressing and are always sent as is */
+    private DataSize gzipMinSize = DataSize.ofKilobytes(2);
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public DataSize getGzipMinSize() {
+        return gzipMinSize;
+    }
+
+    public void setGzipMinSize(DataSize gzipMinSize) {
+        this.gzipMinSize = gzipMinSize;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.search")
+public class ProductSearchProps {
+    private boolean enabled = true;
+
+    private int maxPrefixExpansions = 50;
+
+    private int maxResults = 1000;
+
+    private int rebuildChunkSize = 10_000;
+
+    private long prefixCachePostings = 2_000_000;
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxPrefixExpansions() {
+        return maxPrefixExpansions;
+    }
+
+    public void setMaxPrefixExpansions(int maxPrefixExpansions) {
+        this.maxPrefixExpansions = maxPrefixExpansions;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public int getRebuildChunkSize() {
+        return rebuildChunkSize;
+    }
+
+    public void setRebuildChunkSize(int rebuildChunkSize) {
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    public long getPrefixCachePostings() {
+        return prefixCachePostings;
+    }
+
+    public void setPrefixCachePostings(long prefixCachePostings) {
+        this.prefixCachePostings = prefixCachePostings;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.seed")
+public class ProductSeedProps {
+
+    public enum Mode {
+        /** Load the seed only when the store has no products, so a persistent database is seeded once */
+        IF_EMPTY,
+        /** Load the seed on every start */
+        ALWAYS,
+        /** Never load the seed */
+        NEVER
+    }
+
+    private Mode mode = Mode.IF_EMPTY;
+
+    /** CSV with a title,description,image header, or JSON products one per line (.ndjson, .jsonl, .json) */
+    private Resource location;
+
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Resource getLocation() {
+        return location;
+    }
+
+    public void setLocation(Resource location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.oauth.config;
+
+import com.example.oauth.dao.InMemoryProductRepository;
+import com.example.oauth.dao.ProductDao;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The in-memory product store, used with products.store.type=memory. The JDBC store is
+ * {@link ProductDao} itself. The in-memory store starts from products.store.snapshot when it
+ * exists, otherwise from the PRODUCTS table, and writes the snapshot again on shutdown. Writes
+ * made after the last snapshot are lost if the process dies.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "products.store", name = "type", havingValue = "memory")
+public class ProductStoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductStoreConfig.class);
+
+    /**
+     * The table is read through a DAO on an empty composite registry, whose meters record nothing:
+     * the one-off load is not query latency, and products.db.query stays the JDBC store's own.
+     */
+    @Bean
+    InMemoryProductRepository inMemoryProductRepository(ProductStoreProps props, ProductQueryProps queryProps,
+                                                        JdbcTemplate jdbcTemplate) {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        if (props.getSnapshot() != null && repository.loadSnapshot(props.getSnapshot())) {
+            log.info("Loaded products from snapshot {}", props.getSnapshot());
+        } else {
+            new ProductDao(jdbcTemplate, new CompositeMeterRegistry()).streamProducts(queryProps.getStreamPageSize(), repository::restore);
+        }
+        return repository;
+    }
+
+    @Bean
+    DisposableBean productSnapshotOnShutdown(InMemoryProductRepository repository, ProductStoreProps props) {
+        return () -> {
+            if (props.getSnapshot() != null) {
+                repository.saveSnapshot(props.getSnapshot());
+            }
+        };
+    }
+}
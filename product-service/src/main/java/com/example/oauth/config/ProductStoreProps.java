@@ -0,0 +1,39 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.store")
+public class ProductStoreProps {
+
+    public enum Type {
+        /** PRODUCTS table through JdbcTemplate */
+        JDBC,
+        /** Indexed in-memory store, loaded from {@code snapshot} or else from the PRODUCTS table */
+        MEMORY
+    }
+
+    private Type type = Type.JDBC;
+
+    private Path snapshot;
+
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Path getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Path snapshot) {
+        this.snapshot = snapshot;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.oauth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.write-behind")
+public class ProductWriteBehindProps {
+    private boolean enabled = false;
+
+    private int capacity = 10_000;
+
+    private int batchSize = 500;
+
+    private Path journal = Path.of("data/product-writes.journal");
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private int maximumStatuses = 100_000;
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Path getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Path journal) {
+        this.journal = journal;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public int getMaximumStatuses() {
+        return maximumStatuses;
+    }
+
+    public void setMaximumStatuses(int maximumStatuses) {
+        this.maximumStatuses = maximumStatuses;
+    }
+}
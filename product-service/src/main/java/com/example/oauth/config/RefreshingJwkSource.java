@@ -0,0 +1,134 @@
+package com.example.oauth.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWK set held in memory and refreshed on a background thread, so verifying a token never
+ * waits on the key endpoint. Keys are loaded once on {@link #start(Duration)} and then every
+ * refresh interval; if a refresh fails the previous keys keep being served (stale while revalidate).
+ * A token signed with an unknown key id is rejected straight away and schedules an early refresh,
+ * at most once per {@code minRefreshInterval}, to pick up rotated keys.
+ */
+public class RefreshingJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshingJwkSource.class);
+
+    private final Callable<JWKSet> loader;
+
+    private final long minRefreshIntervalNanos;
+
+    private final AtomicReference<JWKSet> keys = new AtomicReference<>(new JWKSet());
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final AtomicLong lastRefresh = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwk-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RefreshingJwkSource(Callable<JWKSet> loader, Duration minRefreshInterval) {
+        this.loader = loader;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.lastRefresh.set(System.nanoTime() - minRefreshIntervalNanos);
+    }
+
+    /**
+     * Loads the keys on the calling thread, then keeps refreshing them in the background.
+     * A zero refresh interval loads once, which suits keys that never change.
+     */
+    public RefreshingJwkSource start(Duration refreshInterval) {
+        refresh();
+        return schedule(refreshInterval);
+    }
+
+    /**
+     * Like {@link #start(Duration)}, but a first load that fails or finds no keys throws instead of
+     * leaving the source empty. Suits local keys, where that is a misconfiguration rather than an outage.
+     */
+    public RefreshingJwkSource startOrFail(Duration refreshInterval, String description) {
+        JWKSet loaded;
+        try {
+            loaded = loader.call();
+        } catch (Exception ex) {
+            close();
+            throw new IllegalStateException("Could not load the JWK set from " + description + ": " + ex.getMessage(), ex);
+        }
+        if (loaded.getKeys().isEmpty()) {
+            close();
+            throw new IllegalStateException("The JWK set from " + description + " has no keys");
+        }
+        keys.set(loaded);
+        lastRefresh.set(System.nanoTime());
+        log.debug("Loaded {} JWKs", loaded.getKeys().size());
+        return schedule(refreshInterval);
+    }
+
+    private RefreshingJwkSource schedule(Duration refreshInterval) {
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            long interval = refreshInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.NANOSECONDS);
+        }
+        return this;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> matches = jwkSelector.select(keys.get());
+        if (matches.isEmpty()) {
+            requestRefresh();
+        }
+        return matches;
+    }
+
+    public JWKSet getJwkSet() {
+        return keys.get();
+    }
+
+    void requestRefresh() {
+        long now = System.nanoTime();
+        long last = lastRefresh.get();
+        if (now - last >= minRefreshIntervalNanos && !refreshing.get() && lastRefresh.compareAndSet(last, now)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            JWKSet loaded = loader.call();
+            keys.set(loaded);
+            log.debug("Loaded {} JWKs", loaded.getKeys().size());
+        } catch (Exception ex) {
+            log.warn("Failed to refresh JWK set, keeping {} cached keys: {}", keys.get().getKeys().size(), ex.getMessage());
+        } finally {
+            lastRefresh.set(System.nanoTime());
+            refreshing.set(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
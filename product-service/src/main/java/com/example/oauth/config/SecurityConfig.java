@@ -1,8 +1,10 @@
 package com.example.oauth.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
@@ -23,7 +25,9 @@ public class SecurityConfig {
 
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http.authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.POST, "/products").hasAuthority("SCOPE_Products.Write"));
+        http.authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.POST, "/products", "/products/batch").hasAuthority("SCOPE_Products.Write"));
+        // Health and Prometheus scrapes come from infrastructure without a token
+        http.authorizeHttpRequests(auth -> auth.requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll());
         http.authorizeHttpRequests(auth->auth.anyRequest().authenticated());
         http.sessionManagement(mgmt -> mgmt.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.csrf(AbstractHttpConfigurer::disable);
@@ -38,8 +42,11 @@ public class SecurityConfig {
         return http.build();
     }
 
-
+    /**
+     * The H2 console is for local development only, it is enabled in application-dev.properties.
+     */
     @Bean
+    @Profile("dev")
     WebSecurityCustomizer webSecurityCustomizer() {
         return web -> web.ignoring()
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**"));
@@ -1,58 +1,311 @@
 package com.example.oauth.controller;
 
+import com.example.oauth.config.ProductQueryProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.dao.models.CatalogVersion;
 import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductBatchResult;
 import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductPage;
+import com.example.oauth.dto.ProductSearchPage;
+import com.example.oauth.dto.ProductWriteStatus;
+import com.example.oauth.service.ProductIngestService;
+import com.example.oauth.service.ProductResponseCache;
 import com.example.oauth.service.ProductService;
+import com.example.oauth.service.ProductWriteBehind;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @RestController
 public class ProductController {
 
+    /** An Accept-Encoding quality of zero, which refuses the coding */
+    private static final Pattern NO_QUALITY = Pattern.compile("q\\s*=\\s*0(\\.0*)?");
+
     private final ProductService service;
 
-    public ProductController(ProductService service) {
+    private final ProductIngestService ingestService;
+
+    private final ProductQueryProps props;
+
+    private final ProductSearchProps searchProps;
+
+    private final ProductWriteBehind writeBehind;
+
+    private final ProductResponseCache responses;
+
+    private final ObjectMapper mapper;
+
+    private final Map<ProductFormat, ObjectMapper> mappers = new EnumMap<>(ProductFormat.class);
+
+    public ProductController(ProductService service, ProductIngestService ingestService,
+                             ProductQueryProps props, ProductSearchProps searchProps, ProductWriteBehind writeBehind,
+                             ProductResponseCache responses, ObjectMapper mapper) {
         this.service = service;
+        this.ingestService = ingestService;
+        this.props = props;
+        this.searchProps = searchProps;
+        this.writeBehind = writeBehind;
+        this.responses = responses;
+        this.mapper = mapper;
+        for (ProductFormat format : ProductFormat.values()) {
+            mappers.put(format, format.mapper(mapper));
+        }
     }
 
+    /**
+     * Unpaginated listing. Rows are read in keyset pages of products.query.stream-page-size and
+     * written to the response page by page, so memory stays flat regardless of catalog size. Written as JSON, Smile or CBOR
+     * depending on Accept; gzip is applied by the server on the fly when server.compression is on.
+     * <p>
+     * Validators come from {@link CatalogVersion}, so an unchanged catalog is answered with 304
+     * without reading a single product. They are taken before streaming starts, and each page is
+     * its own query, so under concurrent writes the body may include products added after the
+     * validators were read. It is never older than its ETag; a client just refetches once more.
+     */
+    @GetMapping(value = "/products", params = {"!after", "!limit", "!ids"})
+    ResponseEntity<StreamingResponseBody> getProducts(ServletWebRequest request) {
+        CatalogVersion version = service.catalogVersion();
+        long lastModified = version.lastModified() == null ? -1 : version.lastModified().toEpochMilli();
+        if (checkNotModified(request, ProductEtags.of(version), lastModified)) {
+            return null;
+        }
+        ProductFormat format = ProductFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        ObjectMapper streamingMapper = mappers.get(format);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = streamingMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                service.streamProducts(props.getStreamPageSize(), product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    /**
+     * Keyset page, answered from {@link ProductResponseCache} when the page is stored.
+     */
     @GetMapping("/products")
-    List<ProductDto> getProducts() {
-        List<Product> products = service.findProducts();
-        return products.stream()
-                .map(product -> new ProductDto(
-                        product.getId(),
-                        product.getTitle(),
-                        product.getDescription(),
-                        product.getImage())
-                ).toList();
+    ResponseEntity<byte[]> getProducts(@RequestParam(name = "after", defaultValue = "0") int after,
+                                       @RequestParam(name = "limit", required = false) Integer limit,
+                                       ServletWebRequest request) {
+        int pageSize = limit == null ? props.getDefaultLimit() : Math.max(1, Math.min(limit, props.getMaxLimit()));
+        ProductFormat format = ProductFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        return respond(request, format, responses.page(after, pageSize, format.name()), () -> {
+            // Ask for one extra row to find out whether another page exists
+            List<ProductDto> products = service.findProducts(after, pageSize + 1);
+            Integer next = null;
+            if (products.size() > pageSize) {
+                products = products.subList(0, pageSize);
+                next = products.get(pageSize - 1).id();
+            }
+            return new Loaded(new ProductPage(products, next), ProductEtags.of(products, next));
+        });
+    }
+
+    /**
+     * Multi-get: {@code GET /products?ids=1,2,3} answers with the products that exist, in request order.
+     */
+    @GetMapping(value = "/products", params = "ids")
+    List<ProductDto> getProductsByIds(@RequestParam("ids") List<Integer> ids, ServletWebRequest request) {
+        if (ids.size() > props.getMaxLimit()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + props.getMaxLimit() + " ids can be requested at once");
+        }
+        // An empty element, as in ids=1,,2, binds to null
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not contain empty values");
+        }
+        List<ProductDto> products = service.findProductsByIds(ids);
+        if (checkNotModified(request, ProductEtags.of(products, null), -1)) {
+            return null;
+        }
+        return products;
     }
 
+    /**
+     * Full-text search over titles and descriptions, best match first; the last word also matches
+     * as a prefix. Pages are addressed by offset, up to products.search.max-results matches deep.
+     */
+    @GetMapping("/products/search")
+    ProductSearchPage search(@RequestParam("q") String query,
+                             @RequestParam(name = "offset", defaultValue = "0") int offset,
+                             @RequestParam(name = "limit", required = false) Integer limit) {
+        if (!searchProps.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Search is disabled");
+        }
+        int pageSize = limit == null ? props.getDefaultLimit() : Math.max(1, Math.min(limit, props.getMaxLimit()));
+        // Compared without adding, so an offset near Integer.MAX_VALUE cannot wrap around
+        if (offset < 0 || offset > searchProps.getMaxResults() - pageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset + limit must be between 1 and " + searchProps.getMaxResults());
+        }
+        return service.search(query, offset, pageSize);
+    }
+
+    /**
+     * Answered from {@link ProductResponseCache} when the product is stored. Otherwise the ETag is
+     * a hash of the product's fields, so a matching If-None-Match is answered with 304 straight
+     * from the product cache, without serializing the product.
+     */
     @GetMapping("/products/{id}")
-    ProductDto getProduct(@PathVariable("id") int id) {
-        Product product = service.findProductById(id);
-        return new ProductDto(
-                product.getId(),
-                product.getTitle(),
-                product.getDescription(),
-                product.getImage()
-        );
+    ResponseEntity<byte[]> getProduct(@PathVariable("id") int id, ServletWebRequest request) {
+        ProductFormat format = ProductFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        return respond(request, format, responses.product(id, format.name()), () -> {
+            ProductDto product = service.findProductById(id);
+            return new Loaded(product, ProductEtags.of(product));
+        });
     }
 
+    /**
+     * Stores the product before answering, or with products.write-behind.enabled queues it and
+     * answers 202 with a ticket whose status is at {@code /products/writes/{ticket}}. A full queue
+     * is answered with 429 and Retry-After.
+     */
     @PostMapping("/products")
-    public void addProduct(
+    public ResponseEntity<ProductWriteStatus> addProduct(
             @AuthenticationPrincipal Jwt jwt,
             @RequestBody ProductDto productDto) {
+        if (writeBehind.isEnabled()) {
+            return writeBehind.accept(productDto)
+                    .map(status -> ResponseEntity.accepted()
+                            .location(URI.create("/products/writes/" + status.ticket()))
+                            .body(status))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(writeBehind.retryAfter().toSeconds()))
+                            .build());
+        }
         Product product = new Product();
         product.setTitle(productDto.title());
         product.setDescription(productDto.description());
         product.setImage(productDto.image());
         service.addProduct(product);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/products/writes/{ticket}")
+    ProductWriteStatus getWriteStatus(@PathVariable("ticket") long ticket) {
+        return writeBehind.status(ticket)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No product write " + ticket));
+    }
+
+    /**
+     * Bulk ingestion from a JSON array or newline delimited JSON. The body is parsed
+     * incrementally, so the request is never held in memory as a whole.
+     */
+    @PostMapping(value = "/products/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ProductBatchResult addProducts(InputStream body) throws IOException {
+        try (MappingIterator<ProductDto> items = mapper.readerFor(ProductDto.class).readValues(body)) {
+            return ingestService.addProducts(items);
+        }
+    }
+
+    private record Loaded(Object value, String etag) {
+    }
+
+    /**
+     * Writes the stored response for {@code key}, or loads the value, checks the request's
+     * validators before encoding anything, and stores the encoded body. A client that accepts
+     * gzip gets the stored gzipped body when there is one, which the server does not compress again.
+     */
+    private ResponseEntity<byte[]> respond(ServletWebRequest request, ProductFormat format,
+                                           ProductResponseCache.Key key, Supplier<Loaded> loader) {
+        boolean gzip = responses.isGzip() && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ProductResponseCache.Encoded encoded = responses.get(key);
+        if (encoded == null) {
+            Loaded loaded = loader.get();
+            if (checkNotModified(request, loaded.etag(), gzip)) {
+                return null;
+            }
+            encoded = responses.put(key, encode(format, loaded.value()), loaded.etag());
+        } else if (checkNotModified(request, encoded.etag(), gzip)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(format.mediaType());
+        if (gzip && encoded.gzipped() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzipped());
+        }
+        return response.body(encoded.body());
+    }
+
+    private byte[] encode(ProductFormat format, Object value) {
+        try {
+            return mappers.get(format).writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * With stored gzipped bodies the response also varies by Accept-Encoding, and a gzip-accepting
+     * client gets its own validator, whether or not this particular body was worth compressing.
+     */
+    private boolean checkNotModified(ServletWebRequest request, String etag, boolean gzip) {
+        if (responses.isGzip()) {
+            request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return checkNotModified(request, gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag, -1);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    if (NO_QUALITY.matcher(parts[i].trim()).matches()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Product reads are served as JSON, Smile or CBOR, so validators are per representation
+     * and the response varies by Accept.
+     */
+    private static boolean checkNotModified(ServletWebRequest request, String etag, long lastModified) {
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        ProductFormat format = ProductFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        return request.checkNotModified(format.etag(etag), lastModified);
     }
 }
@@ -0,0 +1,72 @@
+package com.example.oauth.controller;
+
+import com.example.oauth.dao.models.CatalogVersion;
+import com.example.oauth.dto.ProductDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Strong entity tags for product responses, computed from the values that are serialized rather
+ * than from the serialized bytes, so a matching If-None-Match is answered without writing JSON.
+ */
+final class ProductEtags {
+
+    private ProductEtags() {
+    }
+
+    static String of(ProductDto product) {
+        MessageDigest digest = sha256();
+        update(digest, product);
+        return format(digest);
+    }
+
+    static String of(Collection<ProductDto> products, Integer next) {
+        MessageDigest digest = sha256();
+        products.forEach(product -> update(digest, product));
+        update(digest, next == null ? null : next.toString());
+        return format(digest);
+    }
+
+    static String of(CatalogVersion version) {
+        MessageDigest digest = sha256();
+        update(digest, version.count() + ":" + version.maxId() + ":" + version.lastModified());
+        return format(digest);
+    }
+
+    private static void update(MessageDigest digest, ProductDto product) {
+        update(digest, String.valueOf(product.id()));
+        update(digest, product.title());
+        update(digest, product.description());
+        update(digest, product.image());
+    }
+
+    /**
+     * Length prefixed, so field boundaries cannot shift between two different products.
+     */
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static String format(MessageDigest digest) {
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
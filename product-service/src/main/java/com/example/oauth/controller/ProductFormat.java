@@ -0,0 +1,70 @@
+package com.example.oauth.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Representations of product responses, picked from the Accept header the same way Spring MVC
+ * picks a message converter: the most preferred acceptable type wins and JSON wins ties.
+ */
+enum ProductFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    SMILE(new MediaType("application", "x-jackson-smile"), SmileFactory::new),
+    CBOR(MediaType.APPLICATION_CBOR, CBORFactory::new);
+
+    private final MediaType mediaType;
+
+    private final Supplier<JsonFactory> factory;
+
+    ProductFormat(MediaType mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * A copy of {@code json} writing this format, keeping its configuration.
+     */
+    ObjectMapper mapper(ObjectMapper json) {
+        return factory == null ? json : json.copyWith(factory.get());
+    }
+
+    /**
+     * Entity tags must differ between representations of the same products.
+     */
+    String etag(String etag) {
+        return this == JSON ? etag : etag.substring(0, etag.length() - 1) + "-" + name().toLowerCase() + "\"";
+    }
+
+    static ProductFormat negotiate(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(acceptable);
+        } catch (IllegalArgumentException ex) {
+            // Malformed or oversized Accept header, Spring MVC rejects those on its own
+            return JSON;
+        }
+        for (MediaType type : acceptable) {
+            for (ProductFormat format : values()) {
+                if (type.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dao.models.CatalogVersion;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Products held in memory for read-heavy deployments.
+ * <ul>
+ *     <li>Ids are mostly dense, so the id map is an array indexed by id: a lookup is one array
+ *     read, with no hashing and no boxing. Ids restored from another source can have gaps, and an
+ *     id far past the number of products is kept in a sorted map instead, so one outlier cannot
+ *     size the array.</li>
+ *     <li>Titles are indexed lower-cased in a skip list, so prefix searches are range scans.</li>
+ *     <li>Reads take no locks. Writers serialize on this instance, fill their slots and then
+ *     publish a new {@link State}; readers only look at slots the state they read covers. Titles
+ *     are indexed after the state is published, so a title search never finds an id that a
+ *     lookup cannot resolve.</li>
+ * </ul>
+ * Products can be saved to and loaded from a snapshot file, read and written through a memory
+ * mapping, so a restart does not have to reload the catalog from its source.
+ */
+public class InMemoryProductRepository implements ProductRepository {
+
+    private static final int SNAPSHOT_MAGIC = 0x50524F44;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /** The array is never grown past this many slots per product, plus MIN_SLOTS */
+    private static final int MAX_SLOTS_PER_PRODUCT = 2;
+
+    private static final int MIN_SLOTS = 1024;
+
+    private final ConcurrentSkipListMap<TitleKey, ProductDto> titles = new ConcurrentSkipListMap<>();
+
+    /** Products whose id the array does not cover when they are stored; they stay here */
+    private final ConcurrentSkipListMap<Integer, ProductDto> sparse = new ConcurrentSkipListMap<>();
+
+    private final Clock clock;
+
+    private volatile State state = new State(new ProductDto[16], 0, 0, null);
+
+    /**
+     * Everything a reader needs, published as one volatile write. Every stored id up to
+     * {@code maxId} is either set in {@code products} or kept in {@code sparse}.
+     */
+    private record State(ProductDto[] products, int maxId, long count, Instant lastModified) {
+    }
+
+    private record TitleKey(String title, int id) implements Comparable<TitleKey> {
+        @Override
+        public int compareTo(TitleKey other) {
+            int byTitle = title.compareTo(other.title);
+            return byTitle != 0 ? byTitle : Integer.compare(id, other.id);
+        }
+    }
+
+    public InMemoryProductRepository() {
+        this(Clock.systemUTC());
+    }
+
+    InMemoryProductRepository(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public List<ProductDto> findProducts() {
+        List<ProductDto> products = new ArrayList<>();
+        streamProducts(0, products::add);
+        return products;
+    }
+
+    @Override
+    public List<ProductDto> findProducts(int after, int limit) {
+        List<ProductDto> products = new ArrayList<>(Math.min(limit, 64));
+        if (limit > 0) {
+            scan(state, after, product -> products.add(product) && products.size() < limit);
+        }
+        return products;
+    }
+
+    @Override
+    public void streamProducts(int pageSize, Consumer<ProductDto> consumer) {
+        scan(state, 0, product -> {
+            consumer.accept(product);
+            return true;
+        });
+    }
+
+    @Override
+    public ProductDto findProductById(int id) {
+        ProductDto product = lookup(state, id);
+        if (product == null) {
+            throw new EmptyResultDataAccessException("No product with id " + id, 1);
+        }
+        return product;
+    }
+
+    @Override
+    public List<ProductDto> findProductsByIds(Collection<Integer> ids) {
+        State current = state;
+        List<ProductDto> products = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            ProductDto product = lookup(current, id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    @Override
+    public List<ProductDto> findProductsByTitlePrefix(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        ConcurrentNavigableMap<TitleKey, ProductDto> range = titles.subMap(
+                new TitleKey(from, Integer.MIN_VALUE), true,
+                new TitleKey(from + Character.MAX_VALUE, Integer.MIN_VALUE), false);
+        return range.values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public CatalogVersion findCatalogVersion() {
+        State current = state;
+        return new CatalogVersion(current.count(), current.maxId(), current.lastModified());
+    }
+
+    @Override
+    public int addProduct(Product product) {
+        return addProducts(List.of(product))[0];
+    }
+
+    @Override
+    public synchronized int[] addProducts(List<Product> products) {
+        products.forEach(InMemoryProductRepository::validate);
+        State current = state;
+        if ((long) current.maxId() + products.size() > Integer.MAX_VALUE) {
+            throw new DataIntegrityViolationException("Product ids exhausted");
+        }
+        long count = current.count() + products.size();
+        ProductDto[] slots = ensureCapacity(current.products(), current.maxId() + products.size(), count);
+        ProductDto[] added = new ProductDto[products.size()];
+        int[] ids = new int[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            ids[i] = current.maxId() + i + 1;
+            added[i] = new ProductDto(ids[i], product.getTitle(), product.getDescription(), product.getImage());
+            store(slots, added[i]);
+        }
+        state = new State(slots, current.maxId() + products.size(), count, clock.instant());
+        // Indexed once published, so every id a title search finds can be looked up
+        for (ProductDto product : added) {
+            index(product);
+        }
+        return ids;
+    }
+
+    /**
+     * Stores a product under its existing id, for loading the store from another source.
+     */
+    public synchronized void restore(ProductDto product) {
+        State current = state;
+        ProductDto replaced = lookup(current, product.id());
+        long count = current.count() + (replaced == null ? 1 : 0);
+        ProductDto[] slots = ensureCapacity(current.products(), product.id(), count);
+        store(slots, product);
+        state = new State(slots, Math.max(current.maxId(), product.id()), count, clock.instant());
+        index(product);
+        if (replaced != null && !Objects.equals(titleKey(replaced), titleKey(product))) {
+            unindex(replaced);
+        }
+    }
+
+    /**
+     * Writes every product to {@code path}. The snapshot is written next to it and moved into
+     * place, so a crash mid-write leaves the previous snapshot intact.
+     */
+    public void saveSnapshot(Path path) {
+        List<ProductDto> products = new ArrayList<>();
+        List<byte[][]> rows = new ArrayList<>();
+        long size = 12;
+        for (ProductDto product : findProducts()) {
+            byte[][] row = {encode(product.title()), encode(product.description()), encode(product.image())};
+            products.add(product);
+            rows.add(row);
+            size += 4 + 3 * 4 + length(row[0]) + length(row[1]) + length(row[2]);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Catalog too large for a single mapped snapshot: " + size + " bytes");
+        }
+        try {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(rows.size());
+                for (int row = 0; row < rows.size(); row++) {
+                    buffer.putInt(products.get(row).id());
+                    for (byte[] value : rows.get(row)) {
+                        put(buffer, value);
+                    }
+                }
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Loads the products saved by {@link #saveSnapshot}. Returns false when there is no snapshot.
+     */
+    public boolean loadSnapshot(Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Not a product snapshot: " + path);
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                restore(new ProductDto(buffer.getInt(), get(buffer), get(buffer), get(buffer)));
+            }
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void index(ProductDto product) {
+        TitleKey key = titleKey(product);
+        if (key != null) {
+            titles.put(key, product);
+        }
+    }
+
+    private void unindex(ProductDto product) {
+        TitleKey key = titleKey(product);
+        if (key != null) {
+            titles.remove(key);
+        }
+    }
+
+    private static TitleKey titleKey(ProductDto product) {
+        return product.title() == null ? null : new TitleKey(product.title().toLowerCase(Locale.ROOT), product.id());
+    }
+
+    private ProductDto lookup(State current, int id) {
+        if (id < 1 || id > current.maxId()) {
+            return null;
+        }
+        ProductDto product = id < current.products().length ? current.products()[id] : null;
+        return product != null ? product : sparse.get(id);
+    }
+
+    /**
+     * Visits the products after {@code after} up to the state's maxId in id order, merging the
+     * array with the sparse map, until {@code visitor} returns false.
+     */
+    private void scan(State current, int after, Predicate<ProductDto> visitor) {
+        if (after >= current.maxId()) {
+            return;
+        }
+        Iterator<ProductDto> rest = sparse.subMap(after, false, current.maxId(), true).values().iterator();
+        ProductDto next = rest.hasNext() ? rest.next() : null;
+        int end = Math.min(current.maxId(), current.products().length - 1);
+        for (int id = Math.max(after + 1, 1); id <= end; id++) {
+            while (next != null && next.id() < id) {
+                if (!visitor.test(next)) {
+                    return;
+                }
+                next = rest.hasNext() ? rest.next() : null;
+            }
+            ProductDto product = current.products()[id];
+            if (product != null && !visitor.test(product)) {
+                return;
+            }
+        }
+        while (next != null) {
+            if (!visitor.test(next)) {
+                return;
+            }
+            next = rest.hasNext() ? rest.next() : null;
+        }
+    }
+
+    /**
+     * An id already kept in the sparse map stays there, so each id lives in exactly one place.
+     */
+    private void store(ProductDto[] slots, ProductDto product) {
+        if (product.id() < slots.length && !sparse.containsKey(product.id())) {
+            slots[product.id()] = product;
+        } else {
+            sparse.put(product.id(), product);
+        }
+    }
+
+    /**
+     * Grows by copying into a larger array, as far as {@code maxId} but never past what
+     * {@code count} products justify. Readers holding the old state keep reading the old array,
+     * which still has every slot their state covers.
+     */
+    private static ProductDto[] ensureCapacity(ProductDto[] slots, int maxId, long count) {
+        if (maxId < slots.length) {
+            return slots;
+        }
+        long limit = Math.min(count * MAX_SLOTS_PER_PRODUCT + MIN_SLOTS, Integer.MAX_VALUE - 8);
+        if (slots.length >= limit) {
+            return slots;
+        }
+        return Arrays.copyOf(slots, (int) Math.min(Math.max(maxId + 1L, slots.length * 2L), limit));
+    }
+
+    /**
+     * The same constraints the PRODUCTS table enforces, reported the way the JDBC store reports them.
+     */
+    private static void validate(Product product) {
+        if (product.getDescription() == null) {
+            throw new DataIntegrityViolationException("description is required");
+        }
+        if (tooLong(product.getTitle(), Product.TITLE_LENGTH)
+                || tooLong(product.getDescription(), Product.DESCRIPTION_LENGTH)
+                || tooLong(product.getImage(), Product.IMAGE_LENGTH)) {
+            throw new DataIntegrityViolationException("Value too long for product: " + product.getTitle());
+        }
+    }
+
+    private static boolean tooLong(String value, int length) {
+        return value != null && value.length() > length;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void put(MappedByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String get(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -1,33 +1,179 @@
 package com.example.oauth.dao;
 
+import com.example.oauth.dao.models.CatalogVersion;
 import com.example.oauth.dao.models.Product;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import com.example.oauth.dto.ProductDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * Each statement is timed as {@code products.db.query}, tagged with its name. For
+ * {@code streamProducts} the time covers every page and includes the consumer, since rows are
+ * pushed to it between pages.
+ */
 @Component
-public class ProductDao {
+@ConditionalOnProperty(prefix = "products.store", name = "type", havingValue = "jdbc", matchIfMissing = true)
+public class ProductDao implements ProductRepository {
 
     private final JdbcTemplate jdbcTemplate;
 
-    public ProductDao(JdbcTemplate template) {
+    private final Map<Statement, Timer> timers = new EnumMap<>(Statement.class);
+
+    private enum Statement {
+        FIND_ALL, FIND_PAGE, STREAM, FIND_BY_ID, FIND_BY_IDS, FIND_BY_TITLE_PREFIX, CATALOG_VERSION, INSERT, INSERT_BATCH;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    public ProductDao(JdbcTemplate template, MeterRegistry registry) {
         this.jdbcTemplate = template;
+        for (Statement statement : Statement.values()) {
+            timers.put(statement, Timer.builder("products.db.query").tag("statement", statement.tag()).register(registry));
+        }
+    }
+
+    private static final String SELECT_PRODUCTS = "SELECT " + ProductRowMapper.COLUMNS + " FROM PRODUCTS";
+
+    @Override
+    public List<ProductDto> findProducts() {
+        return timers.get(Statement.FIND_ALL).record(() -> jdbcTemplate.query(SELECT_PRODUCTS, ProductRowMapper.INSTANCE));
     }
 
-    public List<Product> findProducts() {
-       return jdbcTemplate.query("SELECT * FROM PRODUCTS", new BeanPropertyRowMapper<>(Product.class));
+    /**
+     * Keyset pagination: returns at most {@code limit} products with an id greater than {@code after},
+     * ordered by id. Uses the primary key index instead of OFFSET, so every page costs the same.
+     */
+    @Override
+    public List<ProductDto> findProducts(int after, int limit) {
+        String query = SELECT_PRODUCTS + " WHERE id > ? ORDER BY id LIMIT ?";
+        return timers.get(Statement.FIND_PAGE).record(() -> jdbcTemplate.query(query, ProductRowMapper.INSTANCE, after, limit));
     }
 
-    public Product findProductById(int id) {
-        String query = "SELECT * FROM PRODUCTS WHERE id = " + id;
-        return jdbcTemplate.queryForObject(query, new BeanPropertyRowMapper<>(Product.class));
+    /**
+     * Pushes every product to {@code consumer} in keyset pages of {@code pageSize} rows, so at most
+     * one page is held in memory. A JDBC fetch size alone would not bound it: embedded H2 reads the
+     * whole result before handing back the first row. Each page is its own short statement, so
+     * products added while streaming may or may not be included.
+     */
+    @Override
+    public void streamProducts(int pageSize, Consumer<ProductDto> consumer) {
+        String query = SELECT_PRODUCTS + " WHERE id > ? ORDER BY id LIMIT ?";
+        int limit = Math.max(pageSize, 1);
+        timers.get(Statement.STREAM).record(() -> {
+            int after = 0;
+            List<ProductDto> page;
+            do {
+                page = jdbcTemplate.query(query, ProductRowMapper.INSTANCE, after, limit);
+                page.forEach(consumer);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == limit);
+        });
     }
 
-    public void addProduct(Product product) {
+    @Override
+    public ProductDto findProductById(int id) {
+        String query = SELECT_PRODUCTS + " WHERE id = ?";
+        return timers.get(Statement.FIND_BY_ID).record(() -> jdbcTemplate.queryForObject(query, ProductRowMapper.INSTANCE, id));
+    }
+
+    /**
+     * Products for the given ids in a single round trip. The ids are bound as one array
+     * parameter, so the statement text is the same for any number of ids and stays cached.
+     */
+    @Override
+    public List<ProductDto> findProductsByIds(Collection<Integer> ids) {
+        String query = SELECT_PRODUCTS + " WHERE id = ANY(?)";
+        return timers.get(Statement.FIND_BY_IDS).record(() ->
+                jdbcTemplate.query(query, ProductRowMapper.INSTANCE, (Object) ids.toArray(Integer[]::new)));
+    }
+
+    /**
+     * Matches the lower-cased title column, title_key, with LIKE, so '%', '_' and '\' in the prefix
+     * are escaped. The prefix becomes a range scan on the (title_key, id) index, which also returns
+     * rows in the requested order, so only the first {@code limit} matches are read.
+     */
+    @Override
+    public List<ProductDto> findProductsByTitlePrefix(String prefix, int limit) {
+        String query = SELECT_PRODUCTS + " WHERE title_key LIKE ? ESCAPE '\\' ORDER BY title_key, id LIMIT ?";
+        String pattern = prefix.toLowerCase(Locale.ROOT).replaceAll("([\\\\%_])", "\\\\$1") + "%";
+        return timers.get(Statement.FIND_BY_TITLE_PREFIX).record(() ->
+                jdbcTemplate.query(query, ProductRowMapper.INSTANCE, pattern, limit));
+    }
+
+    /**
+     * Answered from the primary key and updated_at indexes, without reading any product rows.
+     */
+    @Override
+    public CatalogVersion findCatalogVersion() {
+        String query = "SELECT COUNT(*), MAX(id), MAX(updated_at) FROM PRODUCTS";
+        return timers.get(Statement.CATALOG_VERSION).record(() -> jdbcTemplate.queryForObject(query, (rs, rowNum) -> {
+            OffsetDateTime updatedAt = rs.getObject(3, OffsetDateTime.class);
+            return new CatalogVersion(rs.getLong(1), rs.getInt(2), updatedAt == null ? null : updatedAt.toInstant());
+        }));
+    }
+
+    @Override
+    public int addProduct(Product product) {
         String query = "INSERT INTO PRODUCTS(title, description, image) VALUES( ?, ?, ?)";
-        jdbcTemplate.update(query, product.getTitle(), product.getDescription(), product.getImage());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        timers.get(Statement.INSERT).record(() -> jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query, new String[]{"id"});
+            statement.setString(1, product.getTitle());
+            statement.setString(2, product.getDescription());
+            statement.setString(3, product.getImage());
+            return statement;
+        }, keyHolder));
+        return keyHolder.getKeyAs(Integer.class);
+    }
+
+    /**
+     * Inserts all products as a single JDBC batch and returns the generated ids in input order.
+     * Runs in one transaction, so either the whole batch is stored or none of it.
+     */
+    @Override
+    @Transactional
+    public int[] addProducts(List<Product> products) {
+        String query = "INSERT INTO PRODUCTS(title, description, image) VALUES( ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        timers.get(Statement.INSERT_BATCH).record(() -> jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(query, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Product product = products.get(i);
+                        statement.setString(1, product.getTitle());
+                        statement.setString(2, product.getDescription());
+                        statement.setString(3, product.getImage());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                }, keyHolder));
+        return keyHolder.getKeyList().stream()
+                .mapToInt(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toArray();
     }
 }
@@ -0,0 +1,58 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dao.models.CatalogVersion;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Product storage. {@link ProductDao} keeps products in the PRODUCTS table,
+ * {@link InMemoryProductRepository} in indexed in-memory structures; products.store.type picks one.
+ * <p>
+ * Implementations report failures with Spring's {@code DataAccessException} hierarchy: a missing
+ * id is an {@code EmptyResultDataAccessException}, a product breaking the column constraints a
+ * {@code DataIntegrityViolationException}.
+ */
+public interface ProductRepository {
+
+    List<ProductDto> findProducts();
+
+    /**
+     * At most {@code limit} products with an id greater than {@code after}, ordered by id.
+     */
+    List<ProductDto> findProducts(int after, int limit);
+
+    /**
+     * Pushes every product to {@code consumer} in id order without holding them all in memory,
+     * reading at most {@code pageSize} at a time.
+     */
+    void streamProducts(int pageSize, Consumer<ProductDto> consumer);
+
+    ProductDto findProductById(int id);
+
+    /**
+     * Products for the given ids, in no particular order, skipping ids that do not exist.
+     */
+    List<ProductDto> findProductsByIds(Collection<Integer> ids);
+
+    /**
+     * At most {@code limit} products whose title starts with {@code prefix}, ignoring case,
+     * ordered by lower-cased title and then id.
+     */
+    List<ProductDto> findProductsByTitlePrefix(String prefix, int limit);
+
+    CatalogVersion findCatalogVersion();
+
+    /**
+     * Stores the product and returns its generated id.
+     */
+    int addProduct(Product product);
+
+    /**
+     * Stores all products or none of them and returns the generated ids in input order.
+     */
+    int[] addProducts(List<Product> products);
+}
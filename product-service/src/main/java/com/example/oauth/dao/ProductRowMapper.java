@@ -0,0 +1,27 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dto.ProductDto;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row selected with {@link #COLUMNS} straight into a {@link ProductDto} by column index.
+ * Stateless and thread safe, so a single instance is shared instead of building a reflective
+ * {@code BeanPropertyRowMapper} per query.
+ */
+public final class ProductRowMapper implements RowMapper<ProductDto> {
+
+    public static final String COLUMNS = "id, title, description, image";
+
+    public static final ProductRowMapper INSTANCE = new ProductRowMapper();
+
+    private ProductRowMapper() {
+    }
+
+    @Override
+    public ProductDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ProductDto(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    }
+}
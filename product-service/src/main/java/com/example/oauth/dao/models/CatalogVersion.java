@@ -0,0 +1,11 @@
+package com.example.oauth.dao.models;
+
+import java.time.Instant;
+
+/**
+ * Summary of the PRODUCTS table that changes whenever a row is inserted, updated or deleted:
+ * the row count, the highest id and the latest {@code updated_at}. {@code lastModified} is
+ * null for an empty table.
+ */
+public record CatalogVersion(long count, int maxId, Instant lastModified) {
+}
@@ -1,6 +1,14 @@
 package com.example.oauth.dao.models;
 
 public class Product {
+
+    /** Column lengths of the PRODUCTS table in schema.sql, which every store enforces */
+    public static final int TITLE_LENGTH = 100;
+
+    public static final int DESCRIPTION_LENGTH = 200;
+
+    public static final int IMAGE_LENGTH = 100;
+
     private Integer id;
     private String title;
     private String description;
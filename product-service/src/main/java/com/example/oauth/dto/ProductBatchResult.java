@@ -0,0 +1,20 @@
+package com.example.oauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingestion. {@code ids} has one entry per submitted item, in submission
+ * order, and is null for items listed in {@code errors}.
+ */
+public record ProductBatchResult(
+        @JsonProperty("created") int created,
+        @JsonProperty("ids") List<Integer> ids,
+        @JsonProperty("errors") List<ItemError> errors) {
+
+    public record ItemError(
+            @JsonProperty("index") int index,
+            @JsonProperty("message") String message) {
+    }
+}
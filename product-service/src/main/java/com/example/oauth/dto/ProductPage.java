@@ -0,0 +1,16 @@
+package com.example.oauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a keyset paginated product listing. {@code next} is the cursor to pass
+ * as {@code after} for the following page and is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductPage(
+        @JsonProperty("products") List<ProductDto> products,
+        @JsonProperty("next") Integer next) {
+}
@@ -0,0 +1,17 @@
+package com.example.oauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of search results, best match first. {@code total} counts every matching product,
+ * {@code next} is the offset of the following page and is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductSearchPage(
+        @JsonProperty("products") List<ProductDto> products,
+        @JsonProperty("total") int total,
+        @JsonProperty("next") Integer next) {
+}
@@ -0,0 +1,31 @@
+package com.example.oauth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Where a product accepted for a write-behind write is. {@code id} is set once it is written,
+ * {@code error} once it has been rejected by the store.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductWriteStatus(
+        @JsonProperty("ticket") long ticket,
+        @JsonProperty("state") State state,
+        @JsonProperty("id") Integer id,
+        @JsonProperty("error") String error) {
+
+    public enum State {
+        /**
+         * Journaled and waiting for the writer.
+         */
+        QUEUED,
+        /**
+         * Stored under {@code id}.
+         */
+        WRITTEN,
+        /**
+         * Rejected by the store, see {@code error}.
+         */
+        FAILED
+    }
+}
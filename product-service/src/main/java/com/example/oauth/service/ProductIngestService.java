@@ -0,0 +1,137 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductIngestProps;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductBatchResult;
+import com.example.oauth.dto.ProductBatchResult.ItemError;
+import com.example.oauth.dto.ProductDto;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bulk product ingestion. Items are pulled from the iterator one at a time and written in
+ * chunks of {@code products.ingest.chunk-size}, each chunk being stored as a whole or not at all
+ * (one JDBC batch in its own transaction with the JDBC store). A failing item or chunk is reported
+ * and ingestion carries on with the rest.
+ */
+@Service
+public class ProductIngestService {
+    private final ProductRepository repository;
+
+    private final Cache<Integer, Optional<ProductDto>> cache;
+
+    private final ProductIngestProps props;
+
+    private final ProductSearchIndex searchIndex;
+
+    private final ProductResponseCache responses;
+
+    public ProductIngestService(ProductRepository repository, Cache<Integer, Optional<ProductDto>> cache,
+                                ProductIngestProps props, ProductSearchIndex searchIndex,
+                                ProductResponseCache responses) {
+        this.repository = repository;
+        this.cache = cache;
+        this.props = props;
+        this.searchIndex = searchIndex;
+        this.responses = responses;
+    }
+
+    public ProductBatchResult addProducts(Iterator<ProductDto> items) {
+        List<Integer> ids = new ArrayList<>();
+        List<ItemError> errors = new ArrayList<>();
+        List<Product> chunk = new ArrayList<>(props.getChunkSize());
+        List<Integer> chunkIndexes = new ArrayList<>(props.getChunkSize());
+
+        for (int index = 0; items.hasNext(); index++) {
+            ids.add(null);
+            ProductDto dto;
+            try {
+                dto = items.next();
+            } catch (RuntimeJsonMappingException ex) {
+                // The item was well-formed JSON but could not be bound, the parser can carry on
+                errors.add(new ItemError(index, NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                continue;
+            } catch (RuntimeException ex) {
+                // Malformed input, nothing after this point can be trusted
+                errors.add(new ItemError(index, NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                break;
+            }
+
+            String invalid = validate(dto);
+            if (invalid != null) {
+                errors.add(new ItemError(index, invalid));
+                continue;
+            }
+            chunk.add(toProduct(dto));
+            chunkIndexes.add(index);
+            if (chunk.size() >= props.getChunkSize()) {
+                flush(chunk, chunkIndexes, ids, errors);
+            }
+        }
+        flush(chunk, chunkIndexes, ids, errors);
+
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new ProductBatchResult(ids.size() - errors.size(), ids, errors);
+    }
+
+    private void flush(List<Product> chunk, List<Integer> chunkIndexes, List<Integer> ids, List<ItemError> errors) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            int[] generated = repository.addProducts(chunk);
+            for (int i = 0; i < generated.length; i++) {
+                ids.set(chunkIndexes.get(i), generated[i]);
+                cache.invalidate(generated[i]);
+                Product product = chunk.get(i);
+                searchIndex.add(new ProductDto(generated[i], product.getTitle(), product.getDescription(), product.getImage()));
+            }
+            responses.invalidate(Arrays.stream(generated).boxed().toList());
+        } catch (DataAccessException ex) {
+            String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            chunkIndexes.forEach(index -> errors.add(new ItemError(index, message)));
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    /**
+     * The PRODUCTS column constraints, checked up front so one bad item does not fail its chunk.
+     */
+    static String validate(ProductDto dto) {
+        if (dto == null) {
+            return "Product must not be null";
+        }
+        if (dto.description() == null) {
+            return "description is required";
+        }
+        if (dto.title() != null && dto.title().length() > Product.TITLE_LENGTH) {
+            return "title must be at most " + Product.TITLE_LENGTH + " characters";
+        }
+        if (dto.description().length() > Product.DESCRIPTION_LENGTH) {
+            return "description must be at most " + Product.DESCRIPTION_LENGTH + " characters";
+        }
+        if (dto.image() != null && dto.image().length() > Product.IMAGE_LENGTH) {
+            return "image must be at most " + Product.IMAGE_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static Product toProduct(ProductDto dto) {
+        Product product = new Product();
+        product.setTitle(dto.title());
+        product.setDescription(dto.description());
+        product.setImage(dto.image());
+        return product;
+    }
+}
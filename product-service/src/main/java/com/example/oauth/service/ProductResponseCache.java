@@ -0,0 +1,141 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded product responses, so a hot product or listing page is written out as stored bytes
+ * without building DTOs or running Jackson. Entries are kept per representation, for single
+ * products and for keyset pages, and are bounded in bytes by products.response-cache.max-size.
+ * <p>
+ * Adding a product drops its own entries and every page, since any page may now end differently.
+ * Page keys carry a generation that each add moves on, so a page read before the add can never
+ * be found afterwards even if it is stored late; the orphaned entries are evicted as unused.
+ * <p>
+ * With gzip on, bodies of at least gzip-min-size are also kept compressed.
+ * Hit and miss counts are published as cache.* metrics under the name "product-responses".
+ */
+@Service
+public class ProductResponseCache {
+
+    /**
+     * An encoded body, its gzipped copy or null, and the entity tag it was encoded for.
+     */
+    public record Encoded(byte[] body, byte[] gzipped, String etag) {
+    }
+
+    public sealed interface Key {
+    }
+
+    private record ProductKey(int id, String format) implements Key {
+    }
+
+    private record PageKey(int after, int limit, String format, long generation) implements Key {
+    }
+
+    private final ProductResponseCacheProps props;
+
+    private final Cache<Key, Encoded> cache;
+
+    private final Set<String> formats = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductResponseCache(ProductResponseCacheProps props, MeterRegistry registry) {
+        this.props = props;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(props.isEnabled() ? props.getMaxSize().toBytes() : 0)
+                .weigher((Key key, Encoded encoded) -> weight(encoded))
+                .expireAfterWrite(props.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "product-responses");
+    }
+
+    public boolean isGzip() {
+        return props.isEnabled() && props.isGzip();
+    }
+
+    public Key product(int id, String format) {
+        return new ProductKey(id, format);
+    }
+
+    /**
+     * Take the key before reading the page, so the page is stored under the generation it was read at.
+     */
+    public Key page(int after, int limit, String format) {
+        return new PageKey(after, limit, format, generation.get());
+    }
+
+    /**
+     * The stored response, or null when there is none or the cache is disabled.
+     */
+    public Encoded get(Key key) {
+        return props.isEnabled() ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Stores {@code body} under {@code key}, gzipped as well when enabled, and returns what is stored.
+     */
+    public Encoded put(Key key, byte[] body, String etag) {
+        boolean compress = isGzip() && body.length >= props.getGzipMinSize().toBytes();
+        Encoded encoded = new Encoded(body, compress ? gzip(body) : null, etag);
+        if (props.isEnabled()) {
+            if (key instanceof ProductKey productKey) {
+                formats.add(productKey.format());
+            }
+            cache.put(key, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Drops the responses the products with these ids appear in. Call after the products are stored.
+     */
+    public void invalidate(Collection<Integer> ids) {
+        generation.incrementAndGet();
+        List<Key> keys = new ArrayList<>(ids.size() * formats.size());
+        for (int id : ids) {
+            for (String format : formats) {
+                keys.add(new ProductKey(id, format));
+            }
+        }
+        cache.invalidateAll(keys);
+    }
+
+    public void invalidate(int id) {
+        invalidate(List.of(id));
+    }
+
+    private static int weight(Encoded encoded) {
+        long bytes = encoded.body().length + (encoded.gzipped() == null ? 0 : encoded.gzipped().length)
+                + encoded.etag().length() * 2L + 64;
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // Incompressible bodies are sent as they are
+        return out.size() < body.length ? out.toByteArray() : null;
+    }
+}
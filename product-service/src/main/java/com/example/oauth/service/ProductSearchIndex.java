@@ -0,0 +1,499 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dto.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process inverted index over product titles and descriptions, backing {@code GET /products/search}.
+ * <p>
+ * Text is split into lower-cased runs of letters and digits. Each term maps to postings, the ids
+ * of the products containing it in ascending order, with a weight counting a title occurrence
+ * three times. A query matches products containing every query term; the last term also matches
+ * as a prefix unless the query ends with a space. Matches are ranked by the sum of weight times
+ * idf over the query terms and only the best {@code offset + limit} are kept. The rarest term
+ * drives the intersection; common terms are probed through a bitset, the rest by galloping search.
+ * <p>
+ * The index is rebuilt from the repository at startup, before the server takes requests, with
+ * chunks tokenized in parallel. After that, products are added as they are stored. Reads take
+ * no locks.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3f;
+
+    private final ProductRepository repository;
+
+    private final ProductSearchProps props;
+
+    private volatile ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger documents = new AtomicInteger();
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    private final Cache<String, CachedGroup> prefixes;
+
+    /**
+     * Ids of one page of matches, best first, and the number of matches overall.
+     */
+    public record Hits(List<Integer> ids, int total) {
+    }
+
+    public ProductSearchIndex(ProductRepository repository, ProductSearchProps props) {
+        this.repository = repository;
+        this.props = props;
+        this.prefixes = Caffeine.newBuilder()
+                .maximumWeight(props.getPrefixCachePostings())
+                .weigher((String prefix, CachedGroup cached) -> cached.group().size())
+                .build();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (props.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    /**
+     * How deep results can be paged, offset + limit.
+     */
+    public int maxResults() {
+        return props.getMaxResults();
+    }
+
+    /**
+     * Replaces the index with one built from every stored product. Products are read in id order
+     * and tokenized in chunks on the common pool; merging the chunks in order keeps postings sorted.
+     * Only a few chunks per worker are in flight, and each is merged as soon as it is the oldest,
+     * so the partial postings never add up to a second copy of the index.
+     * Products added while a rebuild runs may be missing from its result, so this is meant for startup.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        int inFlight = 2 * Math.max(ForkJoinPool.getCommonPoolParallelism(), 1);
+        Deque<CompletableFuture<Map<String, PostingsBuilder>>> chunks = new ArrayDeque<>();
+        // Merged by hash and then built sorted in one pass, rather than one skip list insert per chunk and term
+        Map<String, Postings> merged = new HashMap<>();
+        List<ProductDto> chunk = new ArrayList<>(props.getRebuildChunkSize());
+        AtomicInteger count = new AtomicInteger();
+        repository.streamProducts(props.getRebuildChunkSize(), product -> {
+            chunk.add(product);
+            count.incrementAndGet();
+            if (chunk.size() >= props.getRebuildChunkSize()) {
+                List<ProductDto> full = List.copyOf(chunk);
+                chunks.add(CompletableFuture.supplyAsync(() -> tokenize(full)));
+                chunk.clear();
+                if (chunks.size() > inFlight) {
+                    merge(merged, chunks.poll().join());
+                }
+            }
+        });
+        List<ProductDto> last = List.copyOf(chunk);
+        chunks.add(CompletableFuture.supplyAsync(() -> tokenize(last)));
+        while (!chunks.isEmpty()) {
+            merge(merged, chunks.poll().join());
+        }
+        ConcurrentSkipListMap<String, Postings> rebuilt = new ConcurrentSkipListMap<>(new TreeMap<>(merged));
+        terms = rebuilt;
+        documents.set(count.get());
+        version.incrementAndGet();
+        log.info("Indexed {} products, {} terms in {} ms", count.get(), rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void merge(Map<String, Postings> merged, Map<String, PostingsBuilder> partial) {
+        partial.forEach((term, builder) -> merged.computeIfAbsent(term, t -> new Postings()).addAll(builder));
+    }
+
+    public void add(ProductDto product) {
+        if (!props.isEnabled()) {
+            return;
+        }
+        ConcurrentSkipListMap<String, Postings> current = terms;
+        weights(product).forEach((term, weight) -> current.computeIfAbsent(term, t -> new Postings()).add(product.id(), weight));
+        documents.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    public Hits search(String query, int offset, int limit) {
+        List<String> tokens = List.copyOf(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+        ConcurrentSkipListMap<String, Postings> current = terms;
+        int n = Math.max(documents.get(), 1);
+
+        List<Group> groups = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Group group;
+            if (prefixLast && i == tokens.size() - 1) {
+                group = prefixGroup(current, token, n);
+            } else {
+                Postings postings = current.get(token);
+                group = postings == null ? null : Group.of(List.of(postings), n);
+            }
+            if (group == null) {
+                return new Hits(List.of(), 0);
+            }
+            groups.add(group);
+        }
+        // Drive from the rarest term and step through the others with cursors: driver ids ascend,
+        // so each cursor only moves forward and the work is bounded by the rarest postings
+        groups.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        int k = offset + limit;
+        PriorityQueue<Hit> best = new PriorityQueue<>(k + 1);
+        float threshold = Float.NEGATIVE_INFINITY;
+        int total = 0;
+        Group driver = groups.get(0);
+        int[] cursors = new int[groups.size()];
+        candidates:
+        for (int i = 0; i < driver.size(); i++) {
+            int id = driver.ids()[i];
+            float score = driver.idf() * driver.weights()[i];
+            for (int g = 1; g < groups.size(); g++) {
+                Group group = groups.get(g);
+                long[] bits = group.bits();
+                if (bits != null && (id >>> 6 >= bits.length || (bits[id >>> 6] & (1L << id)) == 0)) {
+                    continue candidates;
+                }
+                int at = group.seek(cursors[g], id);
+                cursors[g] = at;
+                if (at == group.size()) {
+                    break candidates;
+                }
+                if (group.ids()[at] != id) {
+                    continue candidates;
+                }
+                score += group.idf() * group.weights()[at];
+            }
+            total++;
+            // Equal scores keep the earlier, lower id already in the queue
+            if (best.size() < k || score > threshold) {
+                if (best.size() == k) {
+                    best.poll();
+                }
+                best.offer(new Hit(id, score));
+                if (best.size() == k) {
+                    threshold = best.peek().score();
+                }
+            }
+        }
+
+        Hit[] ranked = best.toArray(Hit[]::new);
+        Arrays.sort(ranked, (a, b) -> b.compareTo(a));
+        List<Integer> ids = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.length; i++) {
+            ids.add(ranked[i].id());
+        }
+        return new Hits(ids, total);
+    }
+
+    /**
+     * The terms starting with {@code prefix}, merged. Merging is the costly part of a short prefix,
+     * and type-ahead asks for the same short prefixes over and over, so merged groups are cached
+     * until the index changes.
+     */
+    private Group prefixGroup(ConcurrentSkipListMap<String, Postings> current, String prefix, int documents) {
+        int seen = version.get();
+        CachedGroup cached = prefixes.getIfPresent(prefix);
+        if (cached != null && cached.version() == seen) {
+            return cached.group();
+        }
+        List<Postings> matches = current.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()
+                .stream().limit(props.getMaxPrefixExpansions()).toList();
+        if (matches.isEmpty()) {
+            return null;
+        }
+        Group group = Group.of(matches, documents);
+        if (matches.size() > 1) {
+            prefixes.put(prefix, new CachedGroup(seen, group));
+        }
+        return group;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Map<String, Float> weights(ProductDto product) {
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(product.title()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+        tokenize(product.description()).forEach(term -> weights.merge(term, 1f, Float::sum));
+        return weights;
+    }
+
+    private static Map<String, PostingsBuilder> tokenize(List<ProductDto> products) {
+        Map<String, PostingsBuilder> partial = new HashMap<>();
+        for (ProductDto product : products) {
+            for (String term : tokenize(product.title())) {
+                partial.computeIfAbsent(term, t -> new PostingsBuilder()).add(product.id(), TITLE_WEIGHT);
+            }
+            for (String term : tokenize(product.description())) {
+                partial.computeIfAbsent(term, t -> new PostingsBuilder()).add(product.id(), 1f);
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Ordered so the weakest hit is at the head of the queue; ties go to the lower id.
+     */
+    private record Hit(int id, float score) implements Comparable<Hit> {
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.id, id);
+        }
+    }
+
+    private record CachedGroup(int version, Group group) {
+    }
+
+    /**
+     * The postings one query term matches, as one sorted list: a single term's postings as they
+     * are, a prefix's expansions merged. A product matching several expansions keeps its highest
+     * weight. {@code bits} is set for a common single term, so most candidates are rejected by a
+     * bit test rather than a search.
+     */
+    private record Group(int[] ids, float[] weights, int size, float idf, long[] bits) {
+
+        static Group of(Collection<Postings> matches, int documents) {
+            if (matches.size() == 1) {
+                Postings postings = matches.iterator().next();
+                Block block = postings.snapshot();
+                return new Group(block.ids(), block.weights(), block.size(), idf(block.size(), documents),
+                        postings.bits(block));
+            }
+            List<Block> blocks = matches.stream().map(Postings::snapshot).toList();
+            // Always merge the two smallest, so a common expansion is copied once rather than once per expansion
+            PriorityQueue<Block> merged = new PriorityQueue<>(Comparator.comparingInt(Block::size));
+            merged.addAll(blocks);
+            while (merged.size() > 1) {
+                merged.add(merge(merged.poll(), merged.poll()));
+            }
+            Block block = merged.poll();
+            return new Group(block.ids(), block.weights(), block.size(),
+                    idf(blocks.stream().mapToInt(Block::size).sum(), documents), null);
+        }
+
+        private static float idf(int df, int documents) {
+            df = Math.min(df, documents);
+            return (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+
+        private static Block merge(Block a, Block b) {
+            int[] ids = new int[a.size() + b.size()];
+            float[] weights = new float[ids.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.size() && j < b.size()) {
+                int idA = a.ids()[i];
+                int idB = b.ids()[j];
+                if (idA < idB) {
+                    ids[n] = idA;
+                    weights[n++] = a.weights()[i++];
+                } else if (idB < idA) {
+                    ids[n] = idB;
+                    weights[n++] = b.weights()[j++];
+                } else {
+                    ids[n] = idA;
+                    weights[n++] = Math.max(a.weights()[i++], b.weights()[j++]);
+                }
+            }
+            System.arraycopy(a.ids(), i, ids, n, a.size() - i);
+            System.arraycopy(a.weights(), i, weights, n, a.size() - i);
+            n += a.size() - i;
+            System.arraycopy(b.ids(), j, ids, n, b.size() - j);
+            System.arraycopy(b.weights(), j, weights, n, b.size() - j);
+            return new Block(ids, weights, n + b.size() - j);
+        }
+
+        /**
+         * Index of the first id at or after {@code from} that is not below {@code id}, found by
+         * galloping: doubling steps, then a binary search within the last step.
+         */
+        int seek(int from, int id) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(ids, low, Math.min(high + 1, size), id);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * Postings as of one moment: the first {@code size} entries of the arrays, which writers
+     * never change once published.
+     */
+    private record Block(int[] ids, float[] weights, int size) {
+    }
+
+    /**
+     * Sorted postings for one term. Writers serialize on the instance and publish a new
+     * {@link Block}; appends reuse the arrays past the published size, anything else copies them.
+     */
+    private static final class Postings {
+        private volatile Block block = new Block(new int[2], new float[2], 0);
+
+        private volatile Dense dense;
+
+        /**
+         * A bitset of the ids in one block and the block it was built from.
+         */
+        private record Dense(Block block, long[] bits) {
+        }
+
+        Block snapshot() {
+            return block;
+        }
+
+        /**
+         * The ids of {@code block} as a bitset, or null unless the term is common enough for the
+         * bitset to be no larger than its postings. Built on first use and kept until the postings change.
+         */
+        long[] bits(Block block) {
+            int size = block.size();
+            if (size == 0 || (long) size * 32 < block.ids()[size - 1]) {
+                return null;
+            }
+            Dense cached = dense;
+            if (cached != null && cached.block() == block) {
+                return cached.bits();
+            }
+            long[] bits = new long[(block.ids()[size - 1] >>> 6) + 1];
+            for (int i = 0; i < size; i++) {
+                bits[block.ids()[i] >>> 6] |= 1L << block.ids()[i];
+            }
+            dense = new Dense(block, bits);
+            return bits;
+        }
+
+        synchronized void add(int id, float weight) {
+            Block current = block;
+            int size = current.size();
+            if (size == 0 || current.ids()[size - 1] < id) {
+                int[] ids = current.ids();
+                float[] weights = current.weights();
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    weights = Arrays.copyOf(weights, size * 2);
+                }
+                ids[size] = id;
+                weights[size] = weight;
+                block = new Block(ids, weights, size + 1);
+                return;
+            }
+            int index = Arrays.binarySearch(current.ids(), 0, size, id);
+            int[] ids = Arrays.copyOf(current.ids(), Math.max(current.ids().length, size + 1));
+            float[] weights = Arrays.copyOf(current.weights(), ids.length);
+            if (index >= 0) {
+                weights[index] = weight;
+                block = new Block(ids, weights, size);
+                return;
+            }
+            int insertAt = -index - 1;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            weights[insertAt] = weight;
+            block = new Block(ids, weights, size + 1);
+        }
+
+        /**
+         * Appends a chunk whose ids all follow the ones already here.
+         */
+        synchronized void addAll(PostingsBuilder builder) {
+            Block current = block;
+            int size = current.size() + builder.size;
+            int[] ids = current.ids();
+            float[] weights = current.weights();
+            if (size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size, ids.length * 2));
+                weights = Arrays.copyOf(weights, ids.length);
+            }
+            System.arraycopy(builder.ids, 0, ids, current.size(), builder.size);
+            System.arraycopy(builder.weights, 0, weights, current.size(), builder.size);
+            block = new Block(ids, weights, size);
+        }
+    }
+
+    /**
+     * Single-threaded postings of one rebuild chunk.
+     */
+    private static final class PostingsBuilder {
+        private int[] ids = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        /**
+         * Products arrive in id order, so a repeated term of the same product is the last entry.
+         */
+        void add(int id, float weight) {
+            if (size > 0 && ids[size - 1] == id) {
+                weights[size - 1] += weight;
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size++] = weight;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductSeedProps;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dto.ProductBatchResult;
+import com.example.oauth.dto.ProductDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Loads products.seed.location into the store on startup, before the server takes requests. The
+ * file is streamed: products are parsed one at a time and written by {@link ProductIngestService}
+ * in batched chunks of products.ingest.chunk-size, so a seed of any size needs memory for one
+ * chunk only. Items the store would reject are logged and skipped.
+ * <p>
+ * CSV needs a header row naming the columns (title, description, image), an empty cell is null.
+ * Any other file is read as JSON products separated by whitespace, as in NDJSON.
+ */
+@Service
+public class ProductSeedLoader implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSeedLoader.class);
+
+    private final ProductRepository repository;
+
+    private final ProductIngestService ingestService;
+
+    private final ProductSeedProps props;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    public ProductSeedLoader(ProductRepository repository, ProductIngestService ingestService,
+                             ProductSeedProps props, ObjectMapper mapper) {
+        this.repository = repository;
+        this.ingestService = ingestService;
+        this.props = props;
+        this.jsonReader = mapper.readerFor(ProductDto.class);
+        this.csvReader = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build()
+                .readerFor(ProductDto.class)
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Resource location = props.getLocation();
+        if (props.getMode() == ProductSeedProps.Mode.NEVER || location == null) {
+            return;
+        }
+        if (props.getMode() == ProductSeedProps.Mode.IF_EMPTY && repository.findCatalogVersion().count() > 0) {
+            log.info("Products already stored, not loading the seed {}", location.getDescription());
+            return;
+        }
+        load(location);
+    }
+
+    public ProductBatchResult load(Resource seed) {
+        long start = System.nanoTime();
+        ProductBatchResult result;
+        try (InputStream in = seed.getInputStream();
+             MappingIterator<ProductDto> items = reader(seed).readValues(in)) {
+            result = ingestService.addProducts(items);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read the product seed " + seed.getDescription(), ex);
+        }
+        log.info("Seeded {} products from {} in {} ms", result.created(), seed.getDescription(),
+                (System.nanoTime() - start) / 1_000_000);
+        if (!result.errors().isEmpty()) {
+            ProductBatchResult.ItemError first = result.errors().get(0);
+            log.warn("Skipped {} seed items, the first at index {}: {}", result.errors().size(), first.index(), first.message());
+        }
+        return result;
+    }
+
+    private ObjectReader reader(Resource seed) {
+        String name = seed.getFilename();
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".csv") ? csvReader : jsonReader;
+    }
+}
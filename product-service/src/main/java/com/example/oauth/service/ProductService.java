@@ -1,34 +1,104 @@
 package com.example.oauth.service;
 
 import com.example.oauth.controller.ProductNotFoundException;
-import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dao.models.CatalogVersion;
 import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductSearchPage;
+import com.github.benmanes.caffeine.cache.Cache;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
-    private final ProductDao dao;
+    private final ProductRepository repository;
 
-    public ProductService(ProductDao dao) {
-        this.dao = dao;
+    private final Cache<Integer, Optional<ProductDto>> cache;
+
+    private final ProductSearchIndex searchIndex;
+
+    private final ProductResponseCache responses;
+
+    public ProductService(ProductRepository repository, Cache<Integer, Optional<ProductDto>> cache,
+                          ProductSearchIndex searchIndex, ProductResponseCache responses) {
+        this.repository = repository;
+        this.cache = cache;
+        this.searchIndex = searchIndex;
+        this.responses = responses;
     }
 
-    public List<Product> findProducts() {
-        return dao.findProducts();
+    public List<ProductDto> findProducts() {
+        return repository.findProducts();
     }
 
-    public Product findProductById(int id) {
-        try {
-            return dao.findProductById(id);
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ProductNotFoundException("Product with id:"+ id + " not found");
-        }
+    public List<ProductDto> findProducts(int after, int limit) {
+        return repository.findProducts(after, limit);
+    }
+
+    public void streamProducts(int pageSize, Consumer<ProductDto> consumer) {
+        repository.streamProducts(pageSize, consumer);
+    }
+
+    public CatalogVersion catalogVersion() {
+        return repository.findCatalogVersion();
+    }
+
+    public ProductDto findProductById(int id) {
+        return cache.get(id, this::loadProduct)
+                .orElseThrow(() -> new ProductNotFoundException("Product with id:"+ id + " not found"));
+    }
+
+    /**
+     * Products for the given ids, in request order, skipping ids that do not exist.
+     * Cached ids are answered from the cache and the rest are loaded with one query.
+     */
+    public List<ProductDto> findProductsByIds(Collection<Integer> ids) {
+        Map<Integer, Optional<ProductDto>> found = cache.getAll(ids, missing -> {
+            Map<Integer, Optional<ProductDto>> loaded = new HashMap<>();
+            missing.forEach(id -> loaded.put(id, Optional.empty()));
+            repository.findProductsByIds(List.copyOf(missing)).forEach(product -> loaded.put(product.id(), Optional.of(product)));
+            return loaded;
+        });
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * Ranked search over titles and descriptions. Only ids come from the index, the products
+     * themselves are read through the cache. There is no next page past products.search.max-results,
+     * since it could not be requested.
+     */
+    public ProductSearchPage search(String query, int offset, int limit) {
+        ProductSearchIndex.Hits hits = searchIndex.search(query, offset, limit);
+        int end = offset + limit;
+        Integer next = end < hits.total() && end < searchIndex.maxResults() ? end : null;
+        return new ProductSearchPage(findProductsByIds(hits.ids()), hits.total(), next);
     }
 
     public void addProduct(Product product) {
-        dao.addProduct(product);
+        int id = repository.addProduct(product);
+        // Drop a cached "not found" for the new id so the product is visible immediately
+        cache.invalidate(id);
+        responses.invalidate(id);
+        searchIndex.add(new ProductDto(id, product.getTitle(), product.getDescription(), product.getImage()));
+    }
+
+    private Optional<ProductDto> loadProduct(int id) {
+        try {
+            return Optional.of(repository.findProductById(id));
+        } catch (EmptyResultDataAccessException ex) {
+            return Optional.empty();
+        }
     }
 }
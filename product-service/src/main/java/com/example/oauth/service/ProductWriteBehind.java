@@ -0,0 +1,474 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductWriteBehindProps;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductWriteStatus;
+import com.example.oauth.dto.ProductWriteStatus.State;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind for {@code POST /products}, used with products.write-behind.enabled. Accepted
+ * products are journaled and queued and the caller gets a ticket straight away; a single writer
+ * thread drains the queue in batches of up to batch-size products, so a burst of creates costs a
+ * few batched inserts on one connection instead of a connection per request.
+ * <ul>
+ *     <li>The queue holds at most capacity products. When it is full {@link #accept} refuses and
+ *     the caller is told to retry later.</li>
+ *     <li>A product is in the journal, forced to disk, before the caller hears it was accepted.
+ *     After each batch the journal records how far the writer got, and on startup everything
+ *     accepted but not recorded as written is queued again. A crash between a batch and its record
+ *     writes that batch twice: delivery is at least once.</li>
+ *     <li>A product the store rejects is reported as failed. When the store itself fails the batch
+ *     is retried, and the queue fills up meanwhile instead of losing writes. Any other error fails
+ *     the batch's unwritten products and the writer carries on with the next batch.</li>
+ * </ul>
+ * Queue depth is published as {@code products.write-behind.queue}, batch latency as
+ * {@code products.write-behind.flush} and refused products as {@code products.write-behind.rejected}.
+ */
+@Service
+public class ProductWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBehind.class);
+
+    private static final String ACCEPTED = "A ";
+
+    private static final String WRITTEN = "W ";
+
+    private final ProductRepository repository;
+
+    private final Cache<Integer, Optional<ProductDto>> cache;
+
+    private final ProductSearchIndex searchIndex;
+
+    private final ProductResponseCache responses;
+
+    private final ProductWriteBehindProps props;
+
+    private final ObjectMapper mapper;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final Cache<Long, ProductWriteStatus> statuses;
+
+    private final Timer flushTimer;
+
+    private final Counter rejected;
+
+    private FileChannel journal;
+
+    private long lastTicket;
+
+    private volatile long writtenTicket;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private record Pending(long ticket, ProductDto product) {
+    }
+
+    public ProductWriteBehind(ProductRepository repository, Cache<Integer, Optional<ProductDto>> cache,
+                              ProductSearchIndex searchIndex, ProductResponseCache responses,
+                              ProductWriteBehindProps props, ObjectMapper mapper, MeterRegistry registry) {
+        this.repository = repository;
+        this.cache = cache;
+        this.searchIndex = searchIndex;
+        this.responses = responses;
+        this.props = props;
+        this.mapper = mapper;
+        this.queue = new ArrayBlockingQueue<>(props.getCapacity());
+        this.statuses = Caffeine.newBuilder().maximumSize(props.getMaximumStatuses()).build();
+        this.flushTimer = Timer.builder("products.write-behind.flush").register(registry);
+        this.rejected = Counter.builder("products.write-behind.rejected").register(registry);
+        Gauge.builder("products.write-behind.queue", queue, BlockingQueue::size).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    public Duration retryAfter() {
+        return props.getRetryAfter();
+    }
+
+    /**
+     * Journals and queues a product. Returns empty when the queue is full. Products are validated
+     * here, with the rules of bulk ingestion, so the writer only meets errors the store raises.
+     * The journal is forced outside the lock, so concurrent accepts share one sync.
+     */
+    public Optional<ProductWriteStatus> accept(ProductDto product) {
+        String invalid = ProductIngestService.validate(product);
+        if (invalid != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, invalid);
+        }
+        long ticket;
+        synchronized (this) {
+            if (!running) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Product writes are not being taken");
+            }
+            if (queue.remainingCapacity() == 0) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            ticket = ++lastTicket;
+            ProductDto queued = new ProductDto(null, product.title(), product.description(), product.image());
+            append(ACCEPTED + ticket + " " + json(queued));
+            // Only the writer takes from the queue, so the capacity checked above is still there
+            queue.add(new Pending(ticket, queued));
+        }
+        force();
+        return Optional.of(new ProductWriteStatus(ticket, State.QUEUED, null, null));
+    }
+
+    /**
+     * Status of an accepted product, empty for tickets never handed out or long forgotten.
+     */
+    public Optional<ProductWriteStatus> status(long ticket) {
+        ProductWriteStatus status = statuses.getIfPresent(ticket);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        if (ticket > writtenTicket && ticket <= lastIssued()) {
+            return Optional.of(new ProductWriteStatus(ticket, State.QUEUED, null, null));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Opens the journal, queues what it holds that was never written and starts the writer.
+     * Runs before the web server starts and stops after it, so no request sees it stopped.
+     */
+    @Override
+    public void start() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        List<Pending> replayed = replay();
+        synchronized (this) {
+            // Tickets keep growing across restarts, so a ticket from before one is never handed out again
+            lastTicket = Math.max(lastTicket, System.currentTimeMillis() * 1000);
+            writtenTicket = replayed.isEmpty() ? lastTicket : replayed.get(0).ticket() - 1;
+            running = true;
+        }
+        writer = Thread.ofPlatform().name("product-write-behind").start(this::drain);
+        for (Pending pending : replayed) {
+            try {
+                queue.put(pending);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Queued {} product writes left in the journal", replayed.size());
+        }
+    }
+
+    /**
+     * Stops taking products and waits for the writer to write what is queued. Whatever it cannot
+     * write stays in the journal for the next start.
+     */
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            log.warn("Could not close the product write journal", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Strictly below the web server's phase (WebServerStartStopLifecycle runs at SMART_LIFECYCLE_PHASE - 1024),
+        // so this starts before the server takes requests and stops after it no longer does
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(props.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, props.getBatchSize() - 1);
+                long start = System.nanoTime();
+                if (!write(batch)) {
+                    return;
+                }
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                written(batch.get(batch.size() - 1).ticket());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // This is the only writer: the batch is given up so the products behind it still get written
+                log.error("Writing {} queued products failed, reporting them as failed", batch.size(), ex);
+                failed(batch, ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one batch, retrying while the store is failing. Returns false when shutting down
+     * with the batch unwritten.
+     */
+    private boolean write(List<Pending> batch) throws InterruptedException {
+        List<Product> products = batch.stream().map(pending -> toProduct(pending.product())).toList();
+        int[] ids;
+        try {
+            ids = retrying(() -> repository.addProducts(products), batch.size());
+        } catch (DataIntegrityViolationException ex) {
+            // One bad product fails the whole batch, writing them one by one finds it
+            for (Pending pending : batch) {
+                if (!writeOne(pending)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (ids == null) {
+            return false;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            stored(batch.get(i), ids[i]);
+        }
+        return true;
+    }
+
+    private boolean writeOne(Pending pending) throws InterruptedException {
+        try {
+            Integer id = retrying(() -> repository.addProduct(toProduct(pending.product())), 1);
+            if (id == null) {
+                return false;
+            }
+            stored(pending, id);
+        } catch (DataIntegrityViolationException ex) {
+            String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            statuses.put(pending.ticket(), new ProductWriteStatus(pending.ticket(), State.FAILED, null, message));
+        }
+        return true;
+    }
+
+    /**
+     * Runs a write, retrying it after retry-after while the store fails. A rejected product is not
+     * retried. Returns null when shutting down before the write succeeded.
+     */
+    private <T> T retrying(Supplier<T> write, int products) throws InterruptedException {
+        while (true) {
+            try {
+                return write.get();
+            } catch (DataIntegrityViolationException ex) {
+                throw ex;
+            } catch (DataAccessException ex) {
+                if (!running) {
+                    return null;
+                }
+                log.warn("Writing {} queued products failed, retrying in {}", products, props.getRetryAfter(), ex);
+                Thread.sleep(props.getRetryAfter().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Reports the products of a batch that are not written yet as failed, and records the batch as
+     * done so a restart does not write what callers were told failed.
+     */
+    private void failed(List<Pending> batch, RuntimeException ex) {
+        String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        for (Pending pending : batch) {
+            statuses.asMap().putIfAbsent(pending.ticket(), new ProductWriteStatus(pending.ticket(), State.FAILED, null, message));
+        }
+        try {
+            written(batch.get(batch.size() - 1).ticket());
+        } catch (RuntimeException journalEx) {
+            log.warn("Could not record the failed batch in the product write journal", journalEx);
+        }
+    }
+
+    private void stored(Pending pending, int id) {
+        cache.invalidate(id);
+        responses.invalidate(id);
+        ProductDto product = pending.product();
+        searchIndex.add(new ProductDto(id, product.title(), product.description(), product.image()));
+        statuses.put(pending.ticket(), new ProductWriteStatus(pending.ticket(), State.WRITTEN, id, null));
+    }
+
+    /**
+     * Records that every ticket up to {@code ticket} is written. Once the writer has caught up
+     * the journal has nothing left to replay and starts over empty.
+     */
+    private synchronized void written(long ticket) {
+        writtenTicket = ticket;
+        try {
+            if (queue.isEmpty() && ticket == lastTicket) {
+                journal.truncate(0);
+            } else {
+                append(WRITTEN + ticket);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        force();
+    }
+
+    private synchronized long lastIssued() {
+        return lastTicket;
+    }
+
+    /**
+     * Reads the journal back, keeping the products not recorded as written, and rewrites it with
+     * only those. A torn last line, from a crash mid-append, was never acknowledged and is dropped.
+     */
+    private List<Pending> replay() {
+        Path path = props.getJournal();
+        Map<Long, ProductDto> pending = new LinkedHashMap<>();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        if (!replay(line, pending)) {
+                            break;
+                        }
+                    }
+                }
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel rewritten = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<Long, ProductDto> entry : pending.entrySet()) {
+                    write(rewritten, ACCEPTED + entry.getKey() + " " + json(entry.getValue()));
+                }
+                rewritten.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return pending.entrySet().stream().map(entry -> new Pending(entry.getKey(), entry.getValue())).toList();
+    }
+
+    private boolean replay(String line, Map<Long, ProductDto> pending) {
+        try {
+            if (line.startsWith(ACCEPTED)) {
+                int space = line.indexOf(' ', ACCEPTED.length());
+                long ticket = Long.parseLong(line.substring(ACCEPTED.length(), space));
+                pending.put(ticket, mapper.readValue(line.substring(space + 1), ProductDto.class));
+                lastTicket = Math.max(lastTicket, ticket);
+            } else if (line.startsWith(WRITTEN)) {
+                long ticket = Long.parseLong(line.substring(WRITTEN.length()));
+                pending.keySet().removeIf(accepted -> accepted <= ticket);
+                writtenTicket = ticket;
+            } else {
+                return false;
+            }
+            return true;
+        } catch (JsonProcessingException | RuntimeException ex) {
+            log.warn("Ignoring the rest of the product write journal from: {}", line);
+            return false;
+        }
+    }
+
+    private void append(String line) {
+        try {
+            write(journal, line);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void force() {
+        try {
+            journal.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void write(FileChannel channel, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private String json(ProductDto product) {
+        try {
+            return mapper.writeValueAsString(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Product toProduct(ProductDto dto) {
+        Product product = new Product();
+        product.setTitle(dto.title());
+        product.setDescription(dto.description());
+        product.setImage(dto.image());
+        return product;
+    }
+}
@@ -1,6 +1,17 @@
-CREATE TABLE products (
+-- Applied on every start (spring.sql.init.mode=always), so a file-backed database keeps its rows:
+-- every statement only creates what is missing
+CREATE TABLE IF NOT EXISTS products (
     id          INTEGER PRIMARY KEY AUTO_INCREMENT,
     title       VARCHAR(100),
     description VARCHAR(200) NOT NULL,
-    image       VARCHAR(100)
-);
\ No newline at end of file
+    image       VARCHAR(100),
+    -- lower-cased title for case-insensitive prefix search, kept up to date by the database
+    title_key   VARCHAR(100) GENERATED ALWAYS AS (LOWER(title)),
+    updated_at  TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL
+);
+
+-- MAX(updated_at) for the catalog version
+CREATE INDEX IF NOT EXISTS products_updated_at ON products (updated_at);
+
+-- title prefix search: the LIKE prefix becomes a range on title_key and rows come back in (title_key, id) order
+CREATE INDEX IF NOT EXISTS products_title_key ON products (title_key, id);
@@ -0,0 +1,56 @@
+package com.example.oauth.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory H2 database with the service schema, seeded with a synthetic catalog.
+ * Uses one connection for the whole run so pool overhead does not show up in the numbers.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private final SingleConnectionDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    BenchmarkDatabase(int products) {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:benchmark" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed(products);
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    SingleConnectionDataSource dataSource() {
+        return dataSource;
+    }
+
+    private void seed(int products) {
+        String query = "INSERT INTO PRODUCTS(title, description, image) VALUES( ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 1; i <= products; i++) {
+            batch.add(new Object[]{
+                    "Product " + i,
+                    "Description of product " + i + ", machine wash, lightweight fabric",
+                    "https://fakestoreapi.com/img/" + i + ".jpg"});
+            if (batch.size() == 1000 || i == products) {
+                jdbcTemplate.batchUpdate(query, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        dataSource.destroy();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.config.JwtConfigs;
+import com.example.oauth.config.ResourceServerPropertiesConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The claim validator chain JwtConfigs installs on the decoder: timestamp, issuer and
+ * AudienceValidator behind a DelegatingOAuth2TokenValidator. Signature verification is
+ * not part of this stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String ISSUER = "https://login.example.com/tenant/v2.0";
+
+    private static final String AUDIENCE = "product-service";
+
+    private OAuth2TokenValidator<Jwt> validator;
+
+    private Jwt valid;
+
+    private Jwt wrongAudience;
+
+    @Setup
+    public void setUp() {
+        ResourceServerPropertiesConfig config = new ResourceServerPropertiesConfig();
+        config.setIssuerUri(ISSUER);
+        config.setAudience(AUDIENCE);
+        validator = JwtConfigs.jwtValidator(config);
+        valid = jwt(AUDIENCE);
+        wrongAudience = jwt("another-api");
+    }
+
+    @Benchmark
+    public OAuth2TokenValidatorResult validToken() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public OAuth2TokenValidatorResult rejectedAudience() {
+        return validator.validate(wrongAudience);
+    }
+
+    private static Jwt jwt(String audience) {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .issuer(ISSUER)
+                .audience(List.of(audience))
+                .subject("benchmark")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofHours(1)))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.dao.InMemoryProductRepository;
+import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dto.ProductDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductRepository queries against an embedded H2 seeded with {@code catalogSize} products, or
+ * against the in-memory store loaded from it.
+ * Sample time mode reports p50/p90/p99/p99.9 next to the throughput figure.
+ * Other catalog sizes can be passed on the command line, e.g. {@code -p catalogSize=1000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDaoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"50"})
+    public int pageSize;
+
+    @Param({"jdbc", "memory"})
+    public String store;
+
+    private BenchmarkDatabase database;
+
+    private ProductRepository dao;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(catalogSize);
+        ProductDao jdbc = new ProductDao(database.jdbcTemplate(), new SimpleMeterRegistry());
+        if (store.equals("memory")) {
+            InMemoryProductRepository memory = new InMemoryProductRepository();
+            jdbc.streamProducts(500, memory::restore);
+            dao = memory;
+        } else {
+            dao = jdbc;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public ProductDto findProductById() {
+        return dao.findProductById(ThreadLocalRandom.current().nextInt(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public List<ProductDto> findProductsPage() {
+        // A catalog no larger than a page always starts at the beginning
+        return dao.findProducts(ThreadLocalRandom.current().nextInt(0, Math.max(1, catalogSize - pageSize)), pageSize);
+    }
+
+    @Benchmark
+    public List<ProductDto> findProductsByTitlePrefix() {
+        return dao.findProductsByTitlePrefix("Product " + ThreadLocalRandom.current().nextInt(1, 100), pageSize);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public void streamProducts(Blackhole blackhole) {
+        dao.streamProducts(500, blackhole::consume);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of each product list representation on both ends of the wire: writing it the way the
+ * streaming listing does, optionally through gzip as Tomcat compression would, and reading it back
+ * into a list as ProductApiClient does. {@code write:bytes} is the size of one response on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"50", "5000"})
+    public int products;
+
+    private ObjectMapper mapper;
+
+    private List<ProductDto> dtos;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        mapper = switch (format) {
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> json;
+        };
+        dtos = IntStream.rangeClosed(1, products)
+                .mapToObj(i -> new ProductDto(i,
+                        "Product " + i,
+                        "Description of product " + i + ", machine wash, lightweight fabric",
+                        "https://fakestoreapi.com/img/" + i + ".jpg"))
+                .toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        encoded = out.toByteArray();
+    }
+
+    /**
+     * Holds the size of the last response written rather than a running total, so the secondary
+     * result reads as bytes per response.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireSize {
+        public long bytes;
+    }
+
+    @Benchmark
+    public void write(WireSize wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        write(out);
+        wire.bytes = out.count;
+    }
+
+    @Benchmark
+    public List<ProductDto> read() throws IOException {
+        InputStream in = new ByteArrayInputStream(encoded);
+        if (gzip) {
+            in = new GZIPInputStream(in);
+        }
+        return mapper.readValue(in, new TypeReference<>() {
+        });
+    }
+
+    private void write(OutputStream target) throws IOException {
+        OutputStream out = gzip ? new GZIPOutputStream(target, 8192) : target;
+        JsonFactory factory = mapper.getFactory();
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            generator.writeStartArray();
+            for (ProductDto dto : dtos) {
+                generator.writeObject(dto);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
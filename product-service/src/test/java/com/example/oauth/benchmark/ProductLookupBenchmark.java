@@ -0,0 +1,68 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.dao.ProductRowMapper;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single product lookup by id: SQL text with the id concatenated in (a new statement for H2
+ * to parse on every call) against a parameterized statement H2 can reuse from its query cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+    @Param({"10000"})
+    public int products;
+
+    private BenchmarkDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(products);
+        jdbcTemplate = database.jdbcTemplate();
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public ProductDto concatenatedBeanProperty() {
+        int id = ThreadLocalRandom.current().nextInt(1, products + 1);
+        Product product = jdbcTemplate.queryForObject("SELECT * FROM PRODUCTS WHERE id = " + id,
+                new BeanPropertyRowMapper<>(Product.class));
+        return new ProductDto(product.getId(), product.getTitle(), product.getDescription(), product.getImage());
+    }
+
+    @Benchmark
+    public ProductDto parameterizedRowMapper() {
+        int id = ThreadLocalRandom.current().nextInt(1, products + 1);
+        return jdbcTemplate.queryForObject("SELECT " + ProductRowMapper.COLUMNS + " FROM PRODUCTS WHERE id = ?",
+                ProductRowMapper.INSTANCE, id);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.dao.ProductRowMapper;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of turning a PRODUCTS row into a ProductDto: the previous reflective
+ * BeanPropertyRowMapper plus bean-to-record copy against the index based ProductRowMapper.
+ * The result set is read once into a scrollable cursor, so only mapping is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRowMappingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private BenchmarkDatabase database;
+
+    private PreparedStatement statement;
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        database = new BenchmarkDatabase(ROWS);
+        statement = database.dataSource().getConnection().prepareStatement(
+                "SELECT " + ProductRowMapper.COLUMNS + " FROM PRODUCTS",
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void beanPropertyRowMapper(Blackhole blackhole) throws SQLException {
+        RowMapper<Product> mapper = new BeanPropertyRowMapper<>(Product.class);
+        resultSet.beforeFirst();
+        int row = 0;
+        while (resultSet.next()) {
+            Product product = mapper.mapRow(resultSet, row++);
+            blackhole.consume(new ProductDto(
+                    product.getId(),
+                    product.getTitle(),
+                    product.getDescription(),
+                    product.getImage()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void productRowMapper(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        int row = 0;
+        while (resultSet.next()) {
+            blackhole.consume(ProductRowMapper.INSTANCE.mapRow(resultSet, row++));
+        }
+    }
+}
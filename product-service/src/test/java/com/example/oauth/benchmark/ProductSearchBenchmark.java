@@ -0,0 +1,111 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.dao.InMemoryProductRepository;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSearchIndex queries over a synthetic catalog of {@code catalogSize} products. Titles are
+ * drawn from small adjective, material and noun lists, so title words match thousands of products
+ * each; descriptions add words from a larger vocabulary. Sample time mode reports p50/p99 per query.
+ * {@code rebuild} measures the parallel startup build of the whole index.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {"slim", "casual", "classic", "vintage", "lightweight", "waterproof",
+            "hooded", "quilted", "oversized", "cropped", "fitted", "relaxed", "striped", "printed", "solid",
+            "padded", "insulated", "breathable", "stretch", "soft"};
+
+    private static final String[] MATERIALS = {"cotton", "denim", "leather", "wool", "linen", "silk", "fleece",
+            "nylon", "polyester", "cashmere", "suede", "canvas"};
+
+    private static final String[] NOUNS = {"jacket", "shirt", "dress", "sweater", "hoodie", "coat", "jeans",
+            "skirt", "blazer", "vest", "parka", "cardigan", "chinos", "shorts", "backpack", "boots", "sneakers",
+            "scarf", "hat", "gloves", "ring", "bracelet", "necklace", "watch", "belt"};
+
+    /**
+     * The catalog and its index, shared by both benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"1000000"})
+        public int catalogSize;
+
+        private ProductSearchIndex index;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            String[] vocabulary = new String[20_000];
+            for (int i = 0; i < vocabulary.length; i++) {
+                vocabulary[i] = word(random);
+            }
+            InMemoryProductRepository repository = new InMemoryProductRepository();
+            for (int id = 1; id <= catalogSize; id++) {
+                String title = pick(random, ADJECTIVES) + " " + pick(random, MATERIALS) + " " + pick(random, NOUNS);
+                StringBuilder description = new StringBuilder(pick(random, MATERIALS));
+                for (int w = 0; w < 12; w++) {
+                    description.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                repository.restore(new ProductDto(id, title, description.toString(), null));
+            }
+            index = new ProductSearchIndex(repository, new ProductSearchProps());
+            index.rebuild();
+        }
+    }
+
+    /**
+     * Kept apart from the catalog so {@code rebuild} is not repeated for every query.
+     */
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({"jacket", "leather jacket", "waterproof leather parka", "cashmere sw", "ne"})
+        public String query;
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits search(Catalog catalog, Query query) {
+        return catalog.index.search(query.query, 0, 50);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public void rebuild(Catalog catalog) {
+        catalog.index.rebuild();
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int s = 0; s < syllables; s++) {
+            word.append("bcdfghklmnprstvz".charAt(random.nextInt(16))).append("aeiou".charAt(random.nextInt(5)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.oauth.benchmark;
+
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson serialization of ProductDto lists with the same ObjectMapper defaults Spring MVC
+ * uses: the paginated response body and the generator loop behind the streaming listing.
+ * Output goes to a discarding stream so only encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int products;
+
+    private ObjectMapper mapper;
+
+    private List<ProductDto> dtos;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = IntStream.rangeClosed(1, products)
+                .mapToObj(i -> new ProductDto(i,
+                        "Product " + i,
+                        "Description of product " + i + ", machine wash, lightweight fabric",
+                        "https://fakestoreapi.com/img/" + i + ".jpg"))
+                .toList();
+    }
+
+    @Benchmark
+    public void writePage() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), new ProductPage(dtos, null));
+    }
+
+    @Benchmark
+    public void writeStreaming() throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (ProductDto dto : dtos) {
+                generator.writeObject(dto);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
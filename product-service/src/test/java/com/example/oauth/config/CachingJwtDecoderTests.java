@@ -0,0 +1,94 @@
+package com.example.oauth.config;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingJwtDecoderTests {
+
+    private static final String ISSUER = "https://login.example.com/tenant/v2.0";
+
+    private static final String AUDIENCE = "product-service";
+
+    private JwtEncoder encoder;
+
+    private SimpleMeterRegistry registry;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("local").generate();
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+
+        ResourceServerPropertiesConfig config = new ResourceServerPropertiesConfig();
+        config.setIssuerUri(ISSUER);
+        config.setAudience(AUDIENCE);
+        NimbusJwtDecoder nimbus = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        nimbus.setJwtValidator(JwtConfigs.jwtValidator(config));
+
+        registry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(nimbus, 100, Duration.ofMinutes(5), registry);
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = sign(AUDIENCE, Instant.now().plus(Duration.ofHours(1)));
+
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.get("jwt.decode").tag("cache", "hit").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.decode").tag("cache", "miss").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenPastExpiryIsNotCached() {
+        // Still accepted thanks to the validator's clock skew, but must not outlive its exp
+        String token = sign(AUDIENCE, Instant.now().minus(Duration.ofSeconds(10)));
+
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void rejectedTokenIsNotCached() {
+        String token = sign("another-api", Instant.now().plus(Duration.ofHours(1)));
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        assertThat(registry.get("jwt.decode").tag("cache", "miss").timer().count()).isEqualTo(2);
+    }
+
+    private String sign(String audience, Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .audience(List.of(audience))
+                .subject("client")
+                .issuedAt(expiresAt.minus(Duration.ofHours(1)))
+                .expiresAt(expiresAt)
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+}
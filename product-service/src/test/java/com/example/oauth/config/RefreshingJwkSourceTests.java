@@ -0,0 +1,162 @@
+package com.example.oauth.config;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshingJwkSourceTests {
+
+    private HttpServer server;
+
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private RefreshingJwkSource source;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void startStubJwkServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/keys", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = published.get().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (source != null) {
+            source.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void preloadsKeysAndKeepsServingThemWhenEndpointIsDown() throws Exception {
+        RSAKey key = rsaKey("first");
+        published.set(new JWKSet(key.toPublicJWK()));
+        source = remoteSource().start(Duration.ZERO);
+        assertThat(fetches).hasValue(1);
+
+        server.stop(0);
+        source.requestRefresh();
+
+        JwtDecoder decoder = new NimbusJwtDecoder(JwtConfigs.jwtProcessor(source));
+        assertThat(decoder.decode(sign(key)).getSubject()).isEqualTo("client");
+    }
+
+    @Test
+    void unknownKeyIdTriggersBackgroundRefresh() throws Exception {
+        RSAKey first = rsaKey("first");
+        RSAKey rotated = rsaKey("rotated");
+        published.set(new JWKSet(first.toPublicJWK()));
+        source = remoteSource().start(Duration.ZERO);
+        JwtDecoder decoder = new NimbusJwtDecoder(JwtConfigs.jwtProcessor(source));
+
+        published.set(new JWKSet(rotated.toPublicJWK()));
+        String token = sign(rotated);
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (source.getJwkSet().getKeyByKeyId("rotated") == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(decoder.decode(token).getSubject()).isEqualTo("client");
+    }
+
+    @Test
+    void processorKeepsTheDefaultTypeCheck() throws Exception {
+        RSAKey key = rsaKey("typed");
+        source = new RefreshingJwkSource(() -> new JWKSet(key.toPublicJWK()), Duration.ZERO).start(Duration.ZERO);
+        JwtDecoder decoder = new NimbusJwtDecoder(JwtConfigs.jwtProcessor(source));
+
+        assertThat(decoder.decode(sign(key, "JWT")).getSubject()).isEqualTo("client");
+        assertThatThrownBy(() -> decoder.decode(sign(key, "secevent+jwt"))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void fileSourceFailsFastWhenTheKeysCannotBeLoaded() throws Exception {
+        assertThatThrownBy(() -> JwtConfigs.fileLoader(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.jwk.location must be set");
+        assertThatThrownBy(() -> JwtConfigs.fileLoader(dir.resolve("missing.json").toString()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is not a readable file");
+
+        Path empty = Files.writeString(dir.resolve("empty.json"), "{\"keys\":[]}");
+        assertThatThrownBy(() -> new RefreshingJwkSource(JwtConfigs.fileLoader(empty.toString()), Duration.ZERO)
+                .startOrFail(Duration.ZERO, empty.toString()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("has no keys");
+
+        RSAKey key = rsaKey("file");
+        Path keys = Files.writeString(dir.resolve("keys.json"), new JWKSet(key.toPublicJWK()).toString());
+        source = new RefreshingJwkSource(JwtConfigs.fileLoader(keys.toString()), Duration.ZERO)
+                .startOrFail(Duration.ZERO, keys.toString());
+        assertThat(source.getJwkSet().getKeyByKeyId("file")).isNotNull();
+    }
+
+    private RefreshingJwkSource remoteSource() {
+        URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/keys");
+        return new RefreshingJwkSource(() -> JWKSet.load(uri.toURL(), 500, 500, 1024 * 1024), Duration.ZERO);
+    }
+
+    private static RSAKey rsaKey(String keyId) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+
+    private static String sign(RSAKey key) {
+        return sign(key, null);
+    }
+
+    private static String sign(RSAKey key, String type) {
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("client")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .build();
+        JwsHeader.Builder header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(key.getKeyID());
+        if (type != null) {
+            header.type(type);
+        }
+        return encoder.encode(JwtEncoderParameters.from(header.build(), claims)).getTokenValue();
+    }
+}
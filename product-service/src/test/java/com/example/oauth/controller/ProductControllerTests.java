@@ -0,0 +1,219 @@
+package com.example.oauth.controller;
+
+import com.example.oauth.config.ProductCacheConfig;
+import com.example.oauth.config.ProductCacheProps;
+import com.example.oauth.config.ProductIngestProps;
+import com.example.oauth.config.ProductQueryProps;
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.config.ProductWriteBehindProps;
+import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.service.ProductIngestService;
+import com.example.oauth.service.ProductResponseCache;
+import com.example.oauth.service.ProductSearchIndex;
+import com.example.oauth.service.ProductService;
+import com.example.oauth.service.ProductWriteBehind;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@JdbcTest
+@Import({ProductDao.class, ProductService.class, ProductIngestService.class, ProductCacheConfig.class,
+        ProductCacheProps.class, ProductIngestProps.class, ProductQueryProps.class, ProductSearchIndex.class,
+        ProductSearchProps.class, ProductResponseCache.class,
+        ProductResponseCacheProps.class, SimpleMeterRegistry.class})
+class ProductControllerTests {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Autowired
+    ProductService service;
+
+    @Autowired
+    ProductIngestService ingestService;
+
+    @Autowired
+    ProductQueryProps props;
+
+    @Autowired
+    ProductSearchProps searchProps;
+
+    @Autowired
+    ProductDao dao;
+
+    @Autowired
+    Cache<Integer, Optional<ProductDto>> cache;
+
+    @Autowired
+    ProductSearchIndex searchIndex;
+
+    @Autowired
+    ProductResponseCache responses;
+
+    @Autowired
+    ProductResponseCacheProps responseProps;
+
+    @Autowired
+    SimpleMeterRegistry registry;
+
+    @TempDir
+    Path dir;
+
+    ProductWriteBehindProps writeBehindProps = new ProductWriteBehindProps();
+
+    ProductWriteBehind writeBehind;
+
+    MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writeBehindProps.setJournal(dir.resolve("products.journal"));
+        writeBehind = new ProductWriteBehind(dao, cache, searchIndex, responses, writeBehindProps, mapper,
+                new SimpleMeterRegistry());
+        ProductController controller = new ProductController(service, ingestService, props, searchProps,
+                writeBehind, responses, mapper);
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+        responseProps.setGzip(false);
+    }
+
+    @Test
+    void unchangedProductIsAnsweredWith304() throws Exception {
+        String etag = mvc.perform(get("/products/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult revalidated = mvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertThat(revalidated.getResponse().getContentLength()).isZero();
+    }
+
+    @Test
+    void listingIsStreamedInTheAcceptedFormatWithItsOwnEtag() throws Exception {
+        MvcResult json = mvc.perform(get("/products")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult smile = mvc.perform(get("/products").accept(SMILE)).andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        String smileEtag = smile.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(smileEtag).isNotEqualTo(json.getResponse().getHeader(HttpHeaders.ETAG));
+
+        mvc.perform(get("/products").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, smileEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void storedResponsesAreServedUntilAProductIsAdded() throws Exception {
+        String product = mvc.perform(get("/products/1")).andReturn().getResponse().getContentAsString();
+        double hits = storedResponseHits();
+        mvc.perform(get("/products/1")).andExpect(status().isOk()).andExpect(content().json(product, true));
+        assertThat(storedResponseHits()).isEqualTo(hits + 1);
+
+        String last = String.valueOf(service.catalogVersion().maxId());
+        mvc.perform(get("/products").param("after", last)).andExpect(jsonPath("$.products").isEmpty());
+        mvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"fresh\",\"description\":\"Added after the page was stored\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/products").param("after", last))
+                .andExpect(jsonPath("$.products[0].title").value("fresh"));
+    }
+
+    @Test
+    void gzipAcceptingClientsGetTheStoredGzippedBody() throws Exception {
+        responseProps.setGzip(true);
+        responseProps.setGzipMinSize(DataSize.ofBytes(1));
+
+        MvcResult plain = mvc.perform(get("/products").param("limit", "7")).andReturn();
+        MvcResult gzipped = mvc.perform(get("/products").param("limit", "7").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getResponse().getContentAsByteArray());
+        }
+        assertThat(plain.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plain.getResponse().getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        String etag = gzipped.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).endsWith("-gzip\"").isNotEqualTo(plain.getResponse().getHeader(HttpHeaders.ETAG));
+        mvc.perform(get("/products").param("limit", "7").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(ProductController.acceptsGzip("identity, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void searchPastMaxResultsIsABadRequest() throws Exception {
+        mvc.perform(get("/products/search").param("q", "mens").param("offset", String.valueOf(Integer.MAX_VALUE - 10)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void emptyIdInAMultiGetIsABadRequest() throws Exception {
+        mvc.perform(get("/products").param("ids", "1,,2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void writeBehindAnswers202WithATicketToPoll() throws Exception {
+        writeBehindProps.setEnabled(true);
+        writeBehind.start();
+
+        String location = mvc.perform(post("/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"queued\",\"description\":\"Written behind\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        assertThat(location).startsWith("/products/writes/");
+        mvc.perform(get(location)).andExpect(status().isOk()).andExpect(jsonPath("$.ticket").exists());
+    }
+
+    private double storedResponseHits() {
+        return registry.get("cache.gets").tags("cache", "product-responses", "result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryProductRepositoryTests extends ProductRepositoryContractTests {
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository();
+
+    @Override
+    ProductRepository repository() {
+        return repository;
+    }
+
+    @Test
+    void restoresProductsFromSnapshot(@TempDir Path dir) {
+        repository.addProducts(List.of(product("Mens Cotton Jacket", "Slim-fitting style"), product(null, "No title")));
+        Path snapshot = dir.resolve("products.snapshot");
+        repository.saveSnapshot(snapshot);
+
+        InMemoryProductRepository restarted = new InMemoryProductRepository();
+
+        assertThat(restarted.loadSnapshot(snapshot)).isTrue();
+        assertThat(restarted.findProducts()).isEqualTo(repository.findProducts());
+        assertThat(restarted.findProductsByTitlePrefix("mens", 10)).extracting(ProductDto::id).containsExactly(1);
+        assertThat(restarted.addProduct(product("Next", "a"))).isEqualTo(3);
+    }
+
+    @Test
+    void missingSnapshotIsNotLoaded(@TempDir Path dir) {
+        assertThat(repository.loadSnapshot(dir.resolve("absent.snapshot"))).isFalse();
+    }
+
+    @Test
+    void restoringAProductReindexesItsTitle() {
+        repository.restore(new ProductDto(1, "Old title", "a", null));
+        repository.restore(new ProductDto(1, "New title", "a", null));
+
+        assertThat(repository.findProductsByTitlePrefix("old", 10)).isEmpty();
+        assertThat(repository.findProductsByTitlePrefix("new", 10)).extracting(ProductDto::id).containsExactly(1);
+        assertThat(repository.findCatalogVersion().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sparseIdsAreRestoredInIdOrder(@TempDir Path dir) {
+        repository.restore(new ProductDto(2_000_000_000, "Far", "a", null));
+        repository.restore(new ProductDto(5, "Near", "a", null));
+        repository.restore(new ProductDto(1, "First", "a", null));
+        repository.restore(new ProductDto(1_000_000, "Middle", "a", null));
+        repository.restore(new ProductDto(5, "Near again", "a", null));
+
+        assertThat(repository.addProduct(product("Next", "a"))).isEqualTo(2_000_000_001);
+        assertThat(repository.findProducts()).extracting(ProductDto::id)
+                .containsExactly(1, 5, 1_000_000, 2_000_000_000, 2_000_000_001);
+        assertThat(repository.findProducts(5, 2)).extracting(ProductDto::id).containsExactly(1_000_000, 2_000_000_000);
+        assertThat(repository.findProductById(2_000_000_000).title()).isEqualTo("Far");
+        assertThat(repository.findProductById(5).title()).isEqualTo("Near again");
+        assertThat(repository.findProductsByIds(List.of(1_000_000, 3, 2_000_000_001))).extracting(ProductDto::id)
+                .containsExactly(1_000_000, 2_000_000_001);
+        assertThat(repository.findCatalogVersion().count()).isEqualTo(5);
+
+        Path snapshot = dir.resolve("products.snapshot");
+        repository.saveSnapshot(snapshot);
+        InMemoryProductRepository restarted = new InMemoryProductRepository();
+        assertThat(restarted.loadSnapshot(snapshot)).isTrue();
+        assertThat(restarted.findProducts()).isEqualTo(repository.findProducts());
+    }
+
+    @Test
+    void everyIdATitleSearchFindsCanBeLookedUp()throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    repository.findProductsByTitlePrefix("item", 50).forEach(found -> repository.findProductById(found.id()));
+                } catch (RuntimeException ex) {
+                    failure.set(ex);
+                    return;
+                }
+            }
+        });
+        // Each new title sorts first, so the reader's searches keep hitting the products just added
+        for (int i = 0; i < 20_000 && failure.get() == null; i++) {
+            repository.addProduct(product("Item %06d".formatted(100_000 - i), "a"));
+        }
+        reader.interrupt();
+        reader.join();
+
+        assertThat(failure.get()).isNull();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dao.models.CatalogVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({ProductDao.class, SimpleMeterRegistry.class})
+class ProductDaoTests extends ProductRepositoryContractTests {
+
+    @Autowired
+    ProductDao dao;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    ProductRepository repository() {
+        return dao;
+    }
+
+    @Test
+    void catalogVersionChangesOnUpdate() {
+        CatalogVersion initial = dao.findCatalogVersion();
+
+        jdbcTemplate.update("UPDATE products SET title = 'Renamed' WHERE id = 1");
+        CatalogVersion updated = dao.findCatalogVersion();
+
+        assertThat(updated.count()).isEqualTo(initial.count());
+        assertThat(updated.lastModified()).isAfter(initial.lastModified());
+    }
+
+    @Test
+    void titlePrefixIsAnIndexRangeInIndexOrder() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM products WHERE title_key LIKE 'mens%' ORDER BY title_key, id LIMIT 10", String.class);
+
+        assertThat(plan).contains("PRODUCTS_TITLE_KEY").contains("index sorted");
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.oauth.dao;
+
+import com.example.oauth.dao.models.CatalogVersion;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link ProductRepository} must share. Implementations may start with products
+ * already stored, so the tests only make assertions about the products they add.
+ */
+abstract class ProductRepositoryContractTests {
+
+    abstract ProductRepository repository();
+
+    @Test
+    void findsAddedProductById() {
+        int id = repository().addProduct(product("Mens Cotton Jacket", "Slim-fitting style"));
+
+        assertThat(repository().findProductById(id))
+                .isEqualTo(new ProductDto(id, "Mens Cotton Jacket", "Slim-fitting style", null));
+    }
+
+    @Test
+    void missingIdIsAnEmptyResult() {
+        assertThatThrownBy(() -> repository().findProductById(Integer.MAX_VALUE))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    void addsBatchWithIdsInInputOrder() {
+        int[] ids = repository().addProducts(List.of(product("First", "a"), product("Second", "b")));
+
+        assertThat(ids[1]).isGreaterThan(ids[0]);
+        assertThat(repository().findProductById(ids[1]).title()).isEqualTo("Second");
+    }
+
+    @Test
+    void rejectsProductBreakingColumnConstraints() {
+        assertThatThrownBy(() -> repository().addProduct(product("No description", null)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> repository().addProduct(product("x".repeat(101), "Too long title")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void pagesWithKeysetCursor() {
+        int[] ids = repository().addProducts(List.of(product("A", "a"), product("B", "b"), product("C", "c")));
+
+        List<ProductDto> first = repository().findProducts(ids[0] - 1, 2);
+        List<ProductDto> second = repository().findProducts(first.get(1).id(), 2);
+
+        assertThat(first).extracting(ProductDto::id).containsExactly(ids[0], ids[1]);
+        assertThat(second).extracting(ProductDto::id).containsExactly(ids[2]);
+    }
+
+    @Test
+    void findsProductsByIds() {
+        int[] ids = repository().addProducts(List.of(product("A", "a"), product("B", "b")));
+
+        List<ProductDto> products = repository().findProductsByIds(List.of(ids[1], ids[0], Integer.MAX_VALUE));
+
+        assertThat(products).extracting(ProductDto::id).containsExactlyInAnyOrder(ids[0], ids[1]);
+    }
+
+    @Test
+    void streamsEveryProductInIdOrder() {
+        int[] ids = repository().addProducts(List.of(product("A", "a"), product("B", "b")));
+
+        List<Integer> streamed = new ArrayList<>();
+        repository().streamProducts(2, product -> streamed.add(product.id()));
+
+        assertThat(streamed).isSortedAccordingTo(Comparator.naturalOrder())
+                .containsAll(Arrays.stream(ids).boxed().toList())
+                .hasSameSizeAs(repository().findProducts());
+    }
+
+    @Test
+    void findsProductsByTitlePrefixIgnoringCase() {
+        int[] ids = repository().addProducts(List.of(
+                product("Zephyrus", "c"), product("zephyr beta", "b"), product("Zephyr Alpha", "a"), product("Other", "d")));
+
+        assertThat(repository().findProductsByTitlePrefix("zEPHYR ", 10))
+                .extracting(ProductDto::id).containsExactly(ids[2], ids[1]);
+        assertThat(repository().findProductsByTitlePrefix("Zephyr", 2))
+                .extracting(ProductDto::id).containsExactly(ids[2], ids[1]);
+        assertThat(repository().findProductsByTitlePrefix("Zeph%", 10)).isEmpty();
+    }
+
+    @Test
+    void catalogVersionChangesOnInsert() {
+        CatalogVersion before = repository().findCatalogVersion();
+
+        int id = repository().addProduct(product("A", "a"));
+        CatalogVersion after = repository().findCatalogVersion();
+
+        assertThat(after.count()).isEqualTo(before.count() + 1);
+        assertThat(after.maxId()).isEqualTo(id);
+        assertThat(after.lastModified()).isNotNull();
+    }
+
+    static Product product(String title, String description) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductCacheConfig;
+import com.example.oauth.config.ProductCacheProps;
+import com.example.oauth.config.ProductIngestProps;
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dto.ProductBatchResult;
+import com.example.oauth.dto.ProductDto;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({ProductDao.class, ProductIngestService.class, ProductIngestProps.class, ProductCacheConfig.class,
+        ProductCacheProps.class, ProductSearchIndex.class, ProductSearchProps.class, ProductResponseCache.class,
+        ProductResponseCacheProps.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "products.ingest.chunk-size=2")
+class ProductIngestServiceTests {
+
+    @Autowired
+    ProductIngestService service;
+
+    @Autowired
+    ProductDao dao;
+
+    ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void ingestsJsonArrayInChunks() throws IOException {
+        String body = """
+                [{"title":"a","description":"A"},{"title":"b","description":"B"},{"title":"c","description":"C"}]
+                """;
+
+        ProductBatchResult result = ingest(body);
+
+        assertThat(result.created()).isEqualTo(3);
+        assertThat(result.ids()).doesNotContainNull().isSorted();
+        assertThat(result.errors()).isEmpty();
+        assertThat(dao.findProductById(result.ids().get(2)).title()).isEqualTo("c");
+    }
+
+    @Test
+    void reportsInvalidNdjsonItemsAndKeepsTheRest() throws IOException {
+        String body = """
+                {"title":"a","description":"A"}
+                {"title":"no description"}
+                {"title":"c","description":"C"}
+                """;
+
+        ProductBatchResult result = ingest(body);
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.ids()).hasSize(3);
+        assertThat(result.ids().get(1)).isNull();
+        assertThat(result.errors()).extracting(ProductBatchResult.ItemError::index).containsExactly(1);
+    }
+
+    private ProductBatchResult ingest(String body) throws IOException {
+        try (MappingIterator<ProductDto> items = mapper.readerFor(ProductDto.class).readValues(body)) {
+            return service.addProducts(items);
+        }
+    }
+}
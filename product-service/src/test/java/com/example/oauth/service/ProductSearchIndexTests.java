@@ -0,0 +1,86 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.dao.InMemoryProductRepository;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductSearchPage;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    private final InMemoryProductRepository repository = new InMemoryProductRepository();
+
+    private final ProductSearchProps props = new ProductSearchProps();
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        props.setRebuildChunkSize(2);
+        repository.restore(new ProductDto(1, "Mens Cotton Jacket", "Slim-fitting style, light weight cotton", null));
+        repository.restore(new ProductDto(2, "Mens Casual Slim Fit", "Color could be slightly different", null));
+        repository.restore(new ProductDto(3, "Rain Jacket Women", "Lightweight, hooded windbreaker jacket", null));
+        repository.restore(new ProductDto(4, "Womens T Shirt", "Cotton, machine wash", null));
+        repository.restore(new ProductDto(5, "Jackfruit Chips", "Dried snack", null));
+        index = new ProductSearchIndex(repository, props);
+        index.rebuild();
+    }
+
+    @Test
+    void ranksProductsMatchingEveryTerm() {
+        ProductSearchIndex.Hits hits = index.search("jacket", 0, 10);
+
+        // The jacket mentioned in both title and description ranks first
+        assertThat(hits.ids()).containsExactly(3, 1);
+        assertThat(index.search("cotton jacket ", 0, 10).ids()).containsExactly(1);
+        assertThat(index.search("cotton sweater ", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixUnlessFollowedBySpace() {
+        assertThat(index.search("jack", 0, 10).ids()).containsExactlyInAnyOrder(1, 3, 5);
+        assertThat(index.search("jack ", 0, 10).ids()).isEmpty();
+        assertThat(index.search("CASUAL sl", 0, 10).ids()).containsExactly(2);
+    }
+
+    @Test
+    void pagesThroughRankedMatches() {
+        ProductSearchIndex.Hits first = index.search("jack", 0, 2);
+        ProductSearchIndex.Hits second = index.search("jack", 2, 2);
+
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.ids()).hasSize(2).doesNotContainAnyElementsOf(second.ids());
+        assertThat(second.ids()).hasSize(1);
+    }
+
+    @Test
+    void indexesAddedProducts() {
+        // Caches the merged expansions of "jack", which the add has to invalidate
+        assertThat(index.search("jack", 0, 10).ids()).doesNotContain(6);
+
+        index.add(new ProductDto(6, "Denim Jacket", "Stonewashed", null));
+
+        assertThat(index.search("denim", 0, 10).ids()).containsExactly(6);
+        assertThat(index.search("jacket", 0, 10).ids()).contains(6);
+        assertThat(index.search("jack", 0, 10).ids()).contains(6);
+    }
+
+    @Test
+    void servicePagesNoFurtherThanMaxResults() {
+        props.setMaxResults(2);
+        ProductService service = new ProductService(repository, Caffeine.newBuilder().build(), index,
+                new ProductResponseCache(new ProductResponseCacheProps(), new SimpleMeterRegistry()));
+
+        assertThat(service.search("jack", 0, 1).next()).isEqualTo(1);
+        ProductSearchPage last = service.search("jack", 0, 2);
+
+        assertThat(last.total()).isEqualTo(3);
+        assertThat(last.next()).isNull();
+    }
+}
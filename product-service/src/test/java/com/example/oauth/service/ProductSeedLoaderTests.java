@@ -0,0 +1,98 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductCacheConfig;
+import com.example.oauth.config.ProductCacheProps;
+import com.example.oauth.config.ProductIngestProps;
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.config.ProductSeedProps;
+import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dto.ProductBatchResult;
+import com.example.oauth.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@Import({ProductDao.class, ProductIngestService.class, ProductIngestProps.class, ProductCacheConfig.class,
+        ProductCacheProps.class, ProductSearchIndex.class, ProductSearchProps.class, ProductResponseCache.class,
+        ProductResponseCacheProps.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "products.ingest.chunk-size=2")
+class ProductSeedLoaderTests {
+
+    @Autowired
+    ProductIngestService ingestService;
+
+    @Autowired
+    ProductDao dao;
+
+    @TempDir
+    Path dir;
+
+    ProductSeedProps props = new ProductSeedProps();
+
+    @Test
+    void loadsQuotedCsvByHeader() throws IOException {
+        props.setLocation(seed("products.csv", """
+                description,title,image
+                "Slim-fitting style, ""light"" cotton",Mens Cotton Jacket,
+                Plain,Tee,https://example.com/tee.jpg
+                """));
+
+        ProductBatchResult result = loader().load(props.getLocation());
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(dao.findProductById(result.ids().get(0)))
+                .isEqualTo(new ProductDto(result.ids().get(0), "Mens Cotton Jacket", "Slim-fitting style, \"light\" cotton", null));
+        assertThat(dao.findProductById(result.ids().get(1)).image()).isEqualTo("https://example.com/tee.jpg");
+    }
+
+    @Test
+    void skipsInvalidNdjsonItems() throws IOException {
+        props.setLocation(seed("products.ndjson", """
+                {"title":"a","description":"A"}
+                {"title":"no description"}
+                {"title":"c","description":"C"}
+                """));
+
+        ProductBatchResult result = loader().load(props.getLocation());
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ProductBatchResult.ItemError::index).containsExactly(1);
+    }
+
+    @Test
+    void seedsAStockedStoreOnlyInAlwaysMode() throws IOException {
+        props.setLocation(seed("products.ndjson", """
+                {"title":"a","description":"A"}
+                """));
+        long stocked = dao.findCatalogVersion().count();
+
+        loader().afterSingletonsInstantiated();
+        assertThat(dao.findCatalogVersion().count()).isEqualTo(stocked);
+
+        props.setMode(ProductSeedProps.Mode.ALWAYS);
+        loader().afterSingletonsInstantiated();
+        assertThat(dao.findCatalogVersion().count()).isEqualTo(stocked + 1);
+    }
+
+    private ProductSeedLoader loader() {
+        return new ProductSeedLoader(dao, ingestService, props, new ObjectMapper());
+    }
+
+    private FileSystemResource seed(String name, String content) throws IOException {
+        return new FileSystemResource(Files.writeString(dir.resolve(name), content));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductCacheConfig;
+import com.example.oauth.config.ProductCacheProps;
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.controller.ProductNotFoundException;
+import com.example.oauth.dao.ProductDao;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductSearchPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@Import({ProductDao.class, ProductService.class, ProductCacheConfig.class, ProductCacheProps.class,
+        ProductSearchIndex.class, ProductSearchProps.class, ProductResponseCache.class,
+        ProductResponseCacheProps.class, SimpleMeterRegistry.class})
+class ProductServiceTests {
+
+    @Autowired
+    ProductService service;
+
+    @Autowired
+    Cache<Integer, Optional<ProductDto>> cache;
+
+    @BeforeEach
+    void clearCache() {
+        cache.invalidateAll();
+    }
+
+    @Test
+    void servesRepeatedLookupsFromCache() {
+        long hits = cache.stats().hitCount();
+        ProductDto first = service.findProductById(1);
+        ProductDto second = service.findProductById(1);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.stats().hitCount() - hits).isEqualTo(1);
+    }
+
+    @Test
+    void multiGetKeepsRequestOrderAndCachesMisses() {
+        service.findProductById(2);
+
+        List<ProductDto> products = service.findProductsByIds(List.of(3, 2, 99, 3));
+
+        assertThat(products).extracting(ProductDto::id).containsExactly(3, 2);
+        assertThat(cache.getIfPresent(99)).isEmpty();
+    }
+
+    @Test
+    void addProductInvalidatesCachedNotFound() {
+        assertThatThrownBy(() -> service.findProductById(6)).isInstanceOf(ProductNotFoundException.class);
+        assertThat(cache.getIfPresent(6)).isEmpty();
+
+        Product product = new Product();
+        product.setTitle("Backpack");
+        product.setDescription("Fits 15 inch laptops");
+        service.addProduct(product);
+
+        assertThat(service.findProductById(6).title()).isEqualTo("Backpack");
+    }
+
+    @Test
+    void addedProductIsSearchable() {
+        Product product = new Product();
+        product.setTitle("Hiking Rucksack");
+        product.setDescription("Waterproof, fits 15 inch laptops");
+        service.addProduct(product);
+
+        ProductSearchPage page = service.search("waterproof ruck", 0, 10);
+
+        assertThat(page.products()).extracting(ProductDto::title).containsExactly("Hiking Rucksack");
+        assertThat(page.total()).isEqualTo(1);
+        assertThat(page.next()).isNull();
+    }
+}
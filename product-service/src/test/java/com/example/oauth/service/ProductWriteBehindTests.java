@@ -0,0 +1,159 @@
+package com.example.oauth.service;
+
+import com.example.oauth.config.ProductResponseCacheProps;
+import com.example.oauth.config.ProductSearchProps;
+import com.example.oauth.config.ProductWriteBehindProps;
+import com.example.oauth.dao.InMemoryProductRepository;
+import com.example.oauth.dao.ProductRepository;
+import com.example.oauth.dao.models.Product;
+import com.example.oauth.dto.ProductDto;
+import com.example.oauth.dto.ProductWriteStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductWriteBehindTests {
+
+    @TempDir
+    Path dir;
+
+    private final ProductWriteBehindProps props = new ProductWriteBehindProps();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<ProductWriteBehind> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        props.setEnabled(true);
+        props.setJournal(dir.resolve("products.journal"));
+        props.setRetryAfter(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(ProductWriteBehind::stop);
+    }
+
+    @Test
+    void writesAcceptedProductsBehindTheCaller() throws InterruptedException {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        ProductWriteBehind writeBehind = start(repository);
+
+        ProductWriteStatus accepted = writeBehind.accept(new ProductDto(null, "a", "A", null)).orElseThrow();
+        ProductWriteStatus written = awaitWritten(writeBehind, accepted.ticket());
+
+        assertThat(repository.findProductById(written.id()).title()).isEqualTo("a");
+        assertThat(registry.get("products.write-behind.queue").gauge().value()).isZero();
+    }
+
+    @Test
+    void replaysProductsLeftInTheJournal() throws InterruptedException {
+        ProductWriteBehind down = start(new FailingRepository());
+        long first = down.accept(new ProductDto(null, "a", "A", null)).orElseThrow().ticket();
+        long second = down.accept(new ProductDto(null, "b", "B", null)).orElseThrow().ticket();
+        down.stop();
+
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        ProductWriteBehind restarted = start(repository);
+        awaitWritten(restarted, second);
+
+        assertThat(repository.findProducts()).extracting(ProductDto::title).containsExactly("a", "b");
+        assertThat(restarted.status(first)).map(ProductWriteStatus::state).contains(ProductWriteStatus.State.WRITTEN);
+    }
+
+    @Test
+    void refusesProductsWhenTheQueueIsFull() {
+        props.setCapacity(1);
+        props.setBatchSize(1);
+        // The writer holds at most one product while the store is down, and the queue one more
+        ProductWriteBehind writeBehind = start(new FailingRepository());
+
+        List<Optional<ProductWriteStatus>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(writeBehind.accept(new ProductDto(null, "p" + i, "P", null)));
+        }
+
+        assertThat(results).contains(Optional.empty());
+        assertThat(registry.get("products.write-behind.rejected").counter().count()).isPositive();
+    }
+
+    @Test
+    void keepsWritingAfterABatchFailsUnexpectedly() throws InterruptedException {
+        props.setBatchSize(1);
+        InMemoryProductRepository repository = new InMemoryProductRepository() {
+            private boolean failed;
+
+            @Override
+            public synchronized int[] addProducts(List<Product> products) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("unexpected");
+                }
+                return super.addProducts(products);
+            }
+        };
+        ProductWriteBehind writeBehind = start(repository);
+
+        long first = writeBehind.accept(new ProductDto(null, "a", "A", null)).orElseThrow().ticket();
+        long second = writeBehind.accept(new ProductDto(null, "b", "B", null)).orElseThrow().ticket();
+        ProductWriteStatus written = awaitWritten(writeBehind, second);
+
+        assertThat(repository.findProductById(written.id()).title()).isEqualTo("b");
+        assertThat(writeBehind.status(first)).map(ProductWriteStatus::state).contains(ProductWriteStatus.State.FAILED);
+    }
+
+    @Test
+    void startsBeforeAndStopsAfterTheWebServer() {
+        ProductWriteBehind writeBehind = new ProductWriteBehind(new InMemoryProductRepository(), Caffeine.newBuilder().build(),
+                new ProductSearchIndex(new InMemoryProductRepository(), new ProductSearchProps()),
+                new ProductResponseCache(new ProductResponseCacheProps(), registry), props, new ObjectMapper(), registry);
+
+        // WebServerStartStopLifecycle's phase
+        assertThat(writeBehind.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    private ProductWriteBehind start(ProductRepository repository) {
+        ProductWriteBehind writeBehind = new ProductWriteBehind(repository, Caffeine.newBuilder().build(),
+                new ProductSearchIndex(repository, new ProductSearchProps()),
+                new ProductResponseCache(new ProductResponseCacheProps(), registry), props, new ObjectMapper(), registry);
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static ProductWriteStatus awaitWritten(ProductWriteBehind writeBehind, long ticket) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Optional<ProductWriteStatus> status = writeBehind.status(ticket);
+            if (status.isPresent() && status.get().state() == ProductWriteStatus.State.WRITTEN) {
+                return status.get();
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Ticket " + ticket + " was not written");
+    }
+
+    /**
+     * A store that is down: every write fails with an error worth retrying.
+     */
+    private static final class FailingRepository extends InMemoryProductRepository {
+        @Override
+        public int[] addProducts(List<Product> products) {
+            throw new TransientDataAccessResourceException("store is down");
+        }
+    }
+}
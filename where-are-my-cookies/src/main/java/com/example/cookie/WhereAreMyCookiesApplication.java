@@ -1,7 +1,10 @@
 package com.example.cookie;
 
+import com.example.cookie.controllers.HelloController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class WhereAreMyCookiesApplication {
@@ -10,4 +13,13 @@ public class WhereAreMyCookiesApplication {
 		SpringApplication.run(WhereAreMyCookiesApplication.class, args);
 	}
 
+	/**
+	 * With spring.main.lazy-initialization (the startup profile) the controller is still built at
+	 * startup, and with it the session cookie codec, so bad keys fail the start.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerRequestPath() {
+		return LazyInitializationExcludeFilter.forBeanTypes(HelloController.class);
+	}
+
 }
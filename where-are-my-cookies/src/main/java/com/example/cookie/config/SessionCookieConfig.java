@@ -0,0 +1,42 @@
+package com.example.cookie.config;
+
+import com.example.cookie.session.SessionCookieCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.List;
+
+@Configuration
+public class SessionCookieConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCookieConfig.class);
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    /**
+     * Without configured keys a random one is generated, so sessions last until the next restart
+     * and only on this node.
+     */
+    @Bean
+    public SessionCookieCodec sessionCookieCodec(SessionCookieProps props, Clock clock) {
+        if (props.getKeys().isEmpty()) {
+            log.warn("No session.cookie.keys configured, signing session cookies with a generated key");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            SessionCookieProps.Key key = new SessionCookieProps.Key();
+            key.setId("generated");
+            key.setSecret(Base64.getEncoder().encodeToString(secret));
+            // Kept out of the bound properties, which should only show what was configured
+            return new SessionCookieCodec(List.of(key), props.isEncrypt(), clock);
+        }
+        return new SessionCookieCodec(props, clock);
+    }
+}
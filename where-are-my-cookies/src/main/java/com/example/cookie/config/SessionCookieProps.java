@@ -0,0 +1,135 @@
+package com.example.cookie.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "session.cookie")
+public class SessionCookieProps {
+    private String name = "session";
+
+    private Duration maxAge = Duration.ofHours(1);
+
+    private String path = "/";
+
+    private boolean secure = true;
+
+    private String sameSite = "Lax";
+
+    private boolean encrypt = false;
+
+    private IdGenerator idGenerator = IdGenerator.SECURE;
+
+    /**
+     * The first key signs new cookies, every key verifies, so a new key can be put first and the old
+     * one kept second until the cookies it signed have expired.
+     */
+    private List<Key> keys = new ArrayList<>();
+
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isSecure() {
+        return secure;
+    }
+
+    public void setSecure(boolean secure) {
+        this.secure = secure;
+    }
+
+    public String getSameSite() {
+        return sameSite;
+    }
+
+    public void setSameSite(String sameSite) {
+        this.sameSite = sameSite;
+    }
+
+    public boolean isEncrypt() {
+        return encrypt;
+    }
+
+    public void setEncrypt(boolean encrypt) {
+        this.encrypt = encrypt;
+    }
+
+    public IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public void setIdGenerator(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<Key> keys) {
+        this.keys = keys;
+    }
+
+    public enum IdGenerator {
+        /**
+         * {@link java.util.UUID#randomUUID()}, from SecureRandom.
+         */
+        SECURE,
+        /**
+         * Version 4 UUIDs from ThreadLocalRandom: no shared lock and no entropy source, but
+         * predictable. The cookie signature already stops visitors from choosing their id.
+         */
+        FAST
+    }
+
+    public static class Key {
+        private String id;
+
+        /**
+         * Base64, at least 32 bytes.
+         */
+        private String secret;
+
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+}
@@ -1,64 +1,86 @@
 package com.example.cookie.controllers;
 
+import com.example.cookie.dto.CookieDto;
+import com.example.cookie.session.CookieSession;
+import com.example.cookie.session.SessionCookies;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 public class HelloController {
+    private static final Logger log = LoggerFactory.getLogger(HelloController.class);
+
+    private static final String REDACTED = "[redacted]";
+
     public final String SauronRising = """
         Now Sauron's lust and pride increased, until he knew no bounds, and he determined to make himself master of all things in Middle-earth, 
         and to destroy the Elves, and to compass if he might, the downfall of Númenor.   
     """;
+
+    public final String MasterRingDestroyed = "Master Ring Destroyed, so is Sauron!";
+
+    private final SessionCookies sessions;
+
+    public HelloController(SessionCookies sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Starts a session for a visitor without a valid one. A valid session is kept, and renewed
+     * once it is past half its lifetime.
+     */
     @RequestMapping(method = RequestMethod.GET, value = "/")
-    public ResponseEntity<String> greet() {
-        ResponseCookie cookie1 = ResponseCookie.from("user-id", UUID.randomUUID().toString())
-                        .maxAge(Duration.ofSeconds(3600)).build();
-        ResponseCookie cookie2 = ResponseCookie.from("user-name", "Sauron")
-                .maxAge(Duration.ofSeconds(3600)).build();
-        ResponseCookie cookie3 = ResponseCookie.from("hunting-for", "MasterRing!") // Cookie value cannot have Space. Strange!
-                .maxAge(Duration.ofSeconds(3600)).build();
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.SET_COOKIE, cookie1.toString());
-        headers.add(HttpHeaders.SET_COOKIE, cookie2.toString());
-        headers.add(HttpHeaders.SET_COOKIE, cookie3.toString());
+    public ResponseEntity<String> greet(@CookieValue(name = "${session.cookie.name:session}", required = false) String session) {
+        Optional<CookieSession> current = sessions.read(session);
+        Optional<CookieSession> issued = current.isPresent()
+                ? current.flatMap(sessions::renewal)
+                : Optional.of(sessions.start("Sauron", "MasterRing!"));
+        HttpHeaders headers = issued.map(sessions::cookieHeaders).orElse(HttpHeaders.EMPTY);
 
         return new ResponseEntity<>(SauronRising, headers, HttpStatus.OK);
     }
 
     @GetMapping("/destroy")
     public ResponseEntity<String> logout() {
-        ResponseCookie cookie1 = ResponseCookie.from("user-id").maxAge(Duration.ZERO).build();
-        ResponseCookie cookie2 = ResponseCookie.from("user-name").maxAge(Duration.ZERO).build();
-        ResponseCookie cookie3 = ResponseCookie.from("hunting-for").maxAge(Duration.ZERO).build();
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.SET_COOKIE, cookie1.toString());
-        headers.add(HttpHeaders.SET_COOKIE, cookie2.toString());
-        headers.add(HttpHeaders.SET_COOKIE, cookie3.toString());
-        return new ResponseEntity<>("Master Ring Destroyed, so is Sauron!", headers, HttpStatus.OK);
+        return new ResponseEntity<>(MasterRingDestroyed, sessions.expiredCookieHeaders(), HttpStatus.OK);
     }
 
 
     @GetMapping("/return")
-    public String readCookie(@CookieValue(name="user-id", defaultValue = "") String userId,
-                             @CookieValue(name="user-name", defaultValue = "") String userName) {
-        if (!userName.isEmpty() && !userId.isEmpty()) {
-            return userName +"(" + userId +")"+", I see you!";
-        }
-        return "You do not exist!";
+    public String readCookie(@CookieValue(name = "${session.cookie.name:session}", required = false) String session) {
+        return sessions.read(session)
+                .map(visitor -> visitor.userName() + "(" + visitor.userId() + ")" + ", I see you!")
+                .orElse("You do not exist!");
     }
 
+    /**
+     * The session cookie is HttpOnly so scripts cannot read it, and its value is redacted here
+     * for the same reason.
+     */
     @GetMapping("return-all")
-    public Cookie[] readAllCookies(HttpServletRequest request) {
+    public List<CookieDto> readAllCookies(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
-        if(cookies != null) {
-            Arrays.stream(cookies).forEach(System.out::println);
+        if (cookies == null) {
+            return List.of();
+        }
+        if (log.isDebugEnabled()) {
+            // Names only, cookie values are credentials
+            log.debug("Request carries cookies {}", Arrays.stream(cookies).map(Cookie::getName).toList());
+        }
+        List<CookieDto> dtos = new ArrayList<>(cookies.length);
+        for (Cookie cookie : cookies) {
+            String value = cookie.getName().equals(sessions.cookieName()) ? REDACTED : cookie.getValue();
+            dtos.add(new CookieDto(cookie.getName(), value));
         }
-        return cookies;
+        return dtos;
     }
 }
@@ -0,0 +1,8 @@
+package com.example.cookie.dto;
+
+/**
+ * A request cookie as {@code /return-all} reports it. Browsers send only the name and value, the
+ * other {@link jakarta.servlet.http.Cookie} properties are always their defaults on a request.
+ */
+public record CookieDto(String name, String value) {
+}
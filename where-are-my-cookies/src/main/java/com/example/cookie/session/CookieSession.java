@@ -0,0 +1,14 @@
+package com.example.cookie.session;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Everything the server knows about a visitor, carried in the session cookie itself.
+ */
+public record CookieSession(UUID userId, String userName, String huntingFor, Instant expiresAt) {
+
+    public boolean expired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+}
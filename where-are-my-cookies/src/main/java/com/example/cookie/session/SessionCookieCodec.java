@@ -0,0 +1,250 @@
+package com.example.cookie.session;
+
+import com.example.cookie.config.SessionCookieProps;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a {@link CookieSession} into a single cookie value and back, with no server-side state.
+ * <ul>
+ * <li>{@code s1.<key id>.<payload>.<tag>}: the payload in the clear, authenticated by HMAC-SHA256
+ * truncated to 128 bits.</li>
+ * <li>{@code e1.<key id>.<iv + ciphertext>}: the payload sealed with AES-256-GCM, the version and
+ * key id authenticated as associated data.</li>
+ * </ul>
+ * Both forms are base64url and verified whatever session.cookie.encrypt is set to, so switching it
+ * does not end existing sessions. Tags are compared in constant time. Per-key material (derived MAC
+ * and AES keys, an initialized Mac per thread) is built once, so verifying costs one HMAC or one
+ * GCM decryption and no key setup.
+ * <p>
+ * The payload is binary: expiry in epoch seconds, the user id, then the length-prefixed UTF-8 user
+ * name and hunting-for strings.
+ */
+public class SessionCookieCodec {
+
+    static final String SIGNED = "s1";
+
+    static final String ENCRYPTED = "e1";
+
+    private static final int TAG_LENGTH = 16;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int MAX_STRING_LENGTH = 1024;
+
+    private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Clock clock;
+
+    private final boolean encrypt;
+
+    private final KeyMaterial signing;
+
+    private final Map<String, KeyMaterial> keys = new HashMap<>();
+
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(SessionCookieCodec::newCipher);
+
+    private final SecureRandom random = new SecureRandom();
+
+    public SessionCookieCodec(SessionCookieProps props, Clock clock) {
+        this(props.getKeys(), props.isEncrypt(), clock);
+    }
+
+    /**
+     * With {@code configured} in place of session.cookie.keys, the first key signing.
+     */
+    public SessionCookieCodec(List<SessionCookieProps.Key> configured, boolean encrypt, Clock clock) {
+        if (configured.isEmpty()) {
+            throw new IllegalArgumentException("session.cookie.keys needs at least one key");
+        }
+        for (SessionCookieProps.Key key : configured) {
+            if (key.getId() == null || !KEY_ID.matcher(key.getId()).matches()) {
+                throw new IllegalArgumentException("session.cookie key id must match " + KEY_ID + ": " + key.getId());
+            }
+            keys.put(key.getId(), KeyMaterial.of(key));
+        }
+        this.clock = clock;
+        this.encrypt = encrypt;
+        this.signing = keys.get(configured.get(0).getId());
+    }
+
+    public String encode(CookieSession session) {
+        byte[] payload = payload(session);
+        try {
+            if (encrypt) {
+                String header = ENCRYPTED + "." + signing.id();
+                byte[] iv = new byte[IV_LENGTH];
+                random.nextBytes(iv);
+                Cipher cipher = ciphers.get();
+                cipher.init(Cipher.ENCRYPT_MODE, signing.aes(), new GCMParameterSpec(TAG_LENGTH * 8, iv));
+                cipher.updateAAD(header.getBytes(StandardCharsets.US_ASCII));
+                byte[] sealed = Arrays.copyOf(iv, IV_LENGTH + cipher.getOutputSize(payload.length));
+                cipher.doFinal(payload, 0, payload.length, sealed, IV_LENGTH);
+                return header + "." + ENCODER.encodeToString(sealed);
+            }
+            String signed = SIGNED + "." + signing.id() + "." + ENCODER.encodeToString(payload);
+            return signed + "." + ENCODER.encodeToString(signing.tag(signed));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not seal session cookie", ex);
+        }
+    }
+
+    /**
+     * The session in {@code value}, or empty if it is malformed, signed with an unknown key, fails
+     * verification or has expired.
+     */
+    public Optional<CookieSession> decode(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        int first = value.indexOf('.');
+        int second = value.indexOf('.', first + 1);
+        if (first < 0 || second < 0) {
+            return Optional.empty();
+        }
+        KeyMaterial key = keys.get(value.substring(first + 1, second));
+        if (key == null) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload;
+            switch (value.substring(0, first)) {
+                case SIGNED -> {
+                    int third = value.indexOf('.', second + 1);
+                    if (third < 0 || !MessageDigest.isEqual(key.tag(value.substring(0, third)),
+                            DECODER.decode(value.substring(third + 1)))) {
+                        return Optional.empty();
+                    }
+                    payload = DECODER.decode(value.substring(second + 1, third));
+                }
+                case ENCRYPTED -> {
+                    byte[] sealed = DECODER.decode(value.substring(second + 1));
+                    if (sealed.length < IV_LENGTH + TAG_LENGTH) {
+                        return Optional.empty();
+                    }
+                    Cipher cipher = ciphers.get();
+                    cipher.init(Cipher.DECRYPT_MODE, key.aes(), new GCMParameterSpec(TAG_LENGTH * 8, sealed, 0, IV_LENGTH));
+                    cipher.updateAAD(value.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+                    payload = cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+                }
+                default -> {
+                    return Optional.empty();
+                }
+            }
+            CookieSession session = session(payload);
+            return session.expired(clock.instant()) ? Optional.empty() : Optional.of(session);
+        } catch (IllegalArgumentException | BufferUnderflowException | GeneralSecurityException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] payload(CookieSession session) {
+        byte[] userName = utf8(session.userName());
+        byte[] huntingFor = utf8(session.huntingFor());
+        return ByteBuffer.allocate(8 + 16 + 2 + userName.length + 2 + huntingFor.length)
+                .putLong(session.expiresAt().getEpochSecond())
+                .putLong(session.userId().getMostSignificantBits())
+                .putLong(session.userId().getLeastSignificantBits())
+                .putShort((short) userName.length).put(userName)
+                .putShort((short) huntingFor.length).put(huntingFor)
+                .array();
+    }
+
+    private static CookieSession session(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Instant expiresAt = Instant.ofEpochSecond(buffer.getLong());
+        UUID userId = new UUID(buffer.getLong(), buffer.getLong());
+        String userName = string(buffer);
+        String huntingFor = string(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in session cookie");
+        }
+        return new CookieSession(userId, userName, huntingFor, expiresAt);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("Session values are limited to " + MAX_STRING_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * MAC and AES keys derived from one configured secret, so a single secret per key id is enough.
+     */
+    private record KeyMaterial(String id, ThreadLocal<Mac> mac, SecretKeySpec aes) {
+
+        static KeyMaterial of(SessionCookieProps.Key key) {
+            byte[] secret = key.getSecret() == null ? new byte[0] : Base64.getDecoder().decode(key.getSecret());
+            if (secret.length < 32) {
+                throw new IllegalArgumentException("session.cookie key " + key.getId() + " needs a secret of at least 32 bytes");
+            }
+            try {
+                Mac prototype = hmac(derive(secret, "session-cookie-mac"));
+                ThreadLocal<Mac> mac = ThreadLocal.withInitial(() -> {
+                    try {
+                        return (Mac) prototype.clone();
+                    } catch (CloneNotSupportedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+                return new KeyMaterial(key.getId(), mac, new SecretKeySpec(derive(secret, "session-cookie-aes"), "AES"));
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        byte[] tag(String signed) {
+            byte[] tag = mac.get().doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+            return Arrays.copyOf(tag, TAG_LENGTH);
+        }
+
+        private static byte[] derive(byte[] secret, String purpose) throws GeneralSecurityException {
+            return hmac(secret).doFinal(purpose.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static Mac hmac(byte[] key) throws GeneralSecurityException {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac;
+        }
+    }
+}
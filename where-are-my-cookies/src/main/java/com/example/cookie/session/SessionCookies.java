@@ -0,0 +1,104 @@
+package com.example.cookie.session;
+
+import com.example.cookie.config.SessionCookieProps;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Starts, reads and ends visitor sessions kept entirely in the signed session cookie, so any node
+ * can serve any request without sticky routing or a shared session store.
+ */
+@Service
+public class SessionCookies {
+
+    private final SessionCookieCodec codec;
+
+    private final SessionCookieProps props;
+
+    private final Clock clock;
+
+    private final Supplier<UUID> ids;
+
+    private final HttpHeaders expiredCookieHeaders;
+
+    public SessionCookies(SessionCookieCodec codec, SessionCookieProps props, Clock clock) {
+        this.codec = codec;
+        this.props = props;
+        this.clock = clock;
+        this.ids = props.getIdGenerator() == SessionCookieProps.IdGenerator.FAST ? SessionCookies::fastRandomUuid : UUID::randomUUID;
+        HttpHeaders expired = new HttpHeaders();
+        expired.add(HttpHeaders.SET_COOKIE, expiredCookie().toString());
+        this.expiredCookieHeaders = HttpHeaders.readOnlyHttpHeaders(expired);
+    }
+
+    public String cookieName() {
+        return props.getName();
+    }
+
+    public CookieSession start(String userName, String huntingFor) {
+        return new CookieSession(ids.get(), userName, huntingFor, clock.instant().plus(props.getMaxAge()));
+    }
+
+    public Optional<CookieSession> read(String cookieValue) {
+        return codec.decode(cookieValue);
+    }
+
+    /**
+     * A session past half its lifetime gets a fresh expiry, so active visitors stay signed in
+     * without a new cookie on every request.
+     */
+    public Optional<CookieSession> renewal(CookieSession session) {
+        Instant now = clock.instant();
+        if (Duration.between(now, session.expiresAt()).compareTo(props.getMaxAge().dividedBy(2)) > 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new CookieSession(session.userId(), session.userName(), session.huntingFor(),
+                now.plus(props.getMaxAge())));
+    }
+
+    public ResponseCookie cookie(CookieSession session) {
+        return attributes(ResponseCookie.from(props.getName(), codec.encode(session)))
+                .maxAge(Duration.between(clock.instant(), session.expiresAt()))
+                .build();
+    }
+
+    public HttpHeaders cookieHeaders(CookieSession session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, cookie(session).toString());
+        return headers;
+    }
+
+    /**
+     * The same read-only headers for every logout, built once.
+     */
+    public HttpHeaders expiredCookieHeaders() {
+        return expiredCookieHeaders;
+    }
+
+    public ResponseCookie expiredCookie() {
+        return attributes(ResponseCookie.from(props.getName(), "")).maxAge(Duration.ZERO).build();
+    }
+
+    private ResponseCookie.ResponseCookieBuilder attributes(ResponseCookie.ResponseCookieBuilder builder) {
+        return builder.path(props.getPath())
+                .secure(props.isSecure())
+                .httpOnly(true)
+                .sameSite(props.getSameSite());
+    }
+
+    static UUID fastRandomUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = random.nextLong() & ~0xF000L | 0x4000L;
+        long lsb = random.nextLong() & ~(0xC000_0000_0000_0000L) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+}
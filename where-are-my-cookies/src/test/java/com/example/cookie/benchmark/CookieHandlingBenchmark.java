@@ -0,0 +1,104 @@
+package com.example.cookie.benchmark;
+
+import com.example.cookie.config.SessionCookieProps;
+import com.example.cookie.controllers.HelloController;
+import com.example.cookie.session.SessionCookieCodec;
+import com.example.cookie.session.SessionCookies;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The landing endpoints of HelloController against the way they used to build their responses:
+ * logout rebuilding three expiring cookies per call, the cookie dump serializing raw servlet
+ * Cookies. {@code idGenerator} switches new visitors' ids between SecureRandom and ThreadLocalRandom.
+ * Run with {@code -prof gc} to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CookieHandlingBenchmark {
+
+    @Param({"SECURE", "FAST"})
+    public SessionCookieProps.IdGenerator idGenerator;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private HelloController controller;
+
+    private MockHttpServletRequest request;
+
+    private Cookie[] cookies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SessionCookieProps props = new SessionCookieProps();
+        props.setIdGenerator(idGenerator);
+        SessionCookieProps.Key key = new SessionCookieProps.Key();
+        key.setId("k1");
+        key.setSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        props.getKeys().add(key);
+        Clock clock = Clock.systemUTC();
+        controller = new HelloController(new SessionCookies(new SessionCookieCodec(props, clock), props, clock));
+        cookies = new Cookie[]{new Cookie("session", "s1.k1.AAAAAGk1c2Vzc2lvbg.q8l3rGk1c2Vzc2lvbg"),
+                new Cookie("user-name", "Sauron"), new Cookie("hunting-for", "MasterRing!")};
+        request = new MockHttpServletRequest();
+        request.setCookies(cookies);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> greetNewVisitor() {
+        return controller.greet(null);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> logoutRebuilt() {
+        ResponseCookie cookie1 = ResponseCookie.from("user-id").maxAge(Duration.ZERO).build();
+        ResponseCookie cookie2 = ResponseCookie.from("user-name").maxAge(Duration.ZERO).build();
+        ResponseCookie cookie3 = ResponseCookie.from("hunting-for").maxAge(Duration.ZERO).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, cookie1.toString());
+        headers.add(HttpHeaders.SET_COOKIE, cookie2.toString());
+        headers.add(HttpHeaders.SET_COOKIE, cookie3.toString());
+        return new ResponseEntity<>("Master Ring Destroyed, so is Sauron!", headers, HttpStatus.OK);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> logoutPrecomputed() {
+        return controller.logout();
+    }
+
+    @Benchmark
+    public byte[] dumpServletCookies() throws Exception {
+        return mapper.writeValueAsBytes(cookies);
+    }
+
+    @Benchmark
+    public byte[] dumpCookieDtos() throws Exception {
+        return mapper.writeValueAsBytes(controller.readAllCookies(request));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.cookie.benchmark;
+
+import com.example.cookie.config.SessionCookieProps;
+import com.example.cookie.session.CookieSession;
+import com.example.cookie.session.SessionCookieCodec;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing and reading a visitor's session: the three plain cookies HelloController used to set
+ * (user-id, user-name, hunting-for, trusted as sent) against one signed or one encrypted session
+ * cookie. The read benchmarks start from the request's cookie array, as a controller would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionCookieBenchmark {
+
+    private SessionCookieCodec signed;
+
+    private SessionCookieCodec encrypted;
+
+    private CookieSession session;
+
+    private Cookie[] plainCookies;
+
+    private Cookie[] signedCookies;
+
+    private Cookie[] encryptedCookies;
+
+    @Setup
+    public void setUp() {
+        signed = new SessionCookieCodec(props(false), Clock.systemUTC());
+        encrypted = new SessionCookieCodec(props(true), Clock.systemUTC());
+        session = new CookieSession(UUID.randomUUID(), "Sauron", "MasterRing!", Instant.now().plus(Duration.ofHours(1)));
+        plainCookies = new Cookie[]{new Cookie("user-id", session.userId().toString()),
+                new Cookie("user-name", "Sauron"), new Cookie("hunting-for", "MasterRing!")};
+        signedCookies = new Cookie[]{new Cookie("session", signed.encode(session))};
+        encryptedCookies = new Cookie[]{new Cookie("session", encrypted.encode(session))};
+    }
+
+    @Benchmark
+    public HttpHeaders issuePlainCookies() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from("user-id", UUID.randomUUID().toString())
+                .maxAge(Duration.ofSeconds(3600)).build().toString());
+        headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from("user-name", "Sauron")
+                .maxAge(Duration.ofSeconds(3600)).build().toString());
+        headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from("hunting-for", "MasterRing!")
+                .maxAge(Duration.ofSeconds(3600)).build().toString());
+        return headers;
+    }
+
+    @Benchmark
+    public HttpHeaders issueSignedCookie() {
+        return issue(signed);
+    }
+
+    @Benchmark
+    public HttpHeaders issueEncryptedCookie() {
+        return issue(encrypted);
+    }
+
+    @Benchmark
+    public String readPlainCookies() {
+        String userId = null;
+        String userName = null;
+        for (Cookie cookie : plainCookies) {
+            switch (cookie.getName()) {
+                case "user-id" -> userId = cookie.getValue();
+                case "user-name" -> userName = cookie.getValue();
+                default -> {
+                }
+            }
+        }
+        return userName + "(" + userId + ")";
+    }
+
+    @Benchmark
+    public String readSignedCookie() {
+        return read(signed, signedCookies);
+    }
+
+    @Benchmark
+    public String readEncryptedCookie() {
+        return read(encrypted, encryptedCookies);
+    }
+
+    private HttpHeaders issue(SessionCookieCodec codec) {
+        CookieSession started = new CookieSession(UUID.randomUUID(), "Sauron", "MasterRing!", session.expiresAt());
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from("session", codec.encode(started))
+                .maxAge(Duration.ofSeconds(3600)).httpOnly(true).sameSite("Lax").build().toString());
+        return headers;
+    }
+
+    private static String read(SessionCookieCodec codec, Cookie[] cookies) {
+        for (Cookie cookie : cookies) {
+            if (cookie.getName().equals("session")) {
+                return codec.decode(cookie.getValue())
+                        .map(visitor -> visitor.userName() + "(" + visitor.userId() + ")")
+                        .orElse(null);
+            }
+        }
+        return null;
+    }
+
+    private static SessionCookieProps props(boolean encrypt) {
+        SessionCookieProps props = new SessionCookieProps();
+        props.setEncrypt(encrypt);
+        SessionCookieProps.Key key = new SessionCookieProps.Key();
+        key.setId("k1");
+        key.setSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        props.getKeys().add(key);
+        return props;
+    }
+}
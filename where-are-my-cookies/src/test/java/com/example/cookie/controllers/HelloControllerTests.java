@@ -0,0 +1,55 @@
+package com.example.cookie.controllers;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HelloControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void greetStartsOneSessionAndKeepsAValidOne() throws Exception {
+        MvcResult first = mvc.perform(get("/")).andReturn();
+        Cookie session = first.getResponse().getCookie("session");
+
+        assertThat(first.getResponse().getHeaders(HttpHeaders.SET_COOKIE)).hasSize(1);
+        mvc.perform(get("/").cookie(session)).andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE));
+        mvc.perform(get("/return").cookie(session)).andExpect(content().string(endsWith("I see you!")));
+        mvc.perform(get("/return").cookie(new Cookie("session", session.getValue() + "x")))
+                .andExpect(content().string("You do not exist!"));
+    }
+
+    @Test
+    void returnAllListsNamesAndValuesOnly() throws Exception {
+        mvc.perform(get("/return-all").cookie(new Cookie("hunting-for", "MasterRing!")))
+                .andExpect(jsonPath("$[0].name").value("hunting-for"))
+                .andExpect(jsonPath("$[0].value").value("MasterRing!"))
+                .andExpect(jsonPath("$[0].maxAge").doesNotExist());
+    }
+
+    @Test
+    void returnAllRedactsTheSessionCookie() throws Exception {
+        Cookie session = mvc.perform(get("/")).andReturn().getResponse().getCookie("session");
+
+        mvc.perform(get("/return-all").cookie(session, new Cookie("hunting-for", "MasterRing!")))
+                .andExpect(jsonPath("$[0].name").value("session"))
+                .andExpect(jsonPath("$[0].value").value("[redacted]"))
+                .andExpect(jsonPath("$[1].value").value("MasterRing!"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cookie.session;
+
+import com.example.cookie.config.SessionCookieConfig;
+import com.example.cookie.config.SessionCookieProps;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCookieCodecTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    private final CookieSession session =
+            new CookieSession(UUID.randomUUID(), "Sauron", "MasterRing!", NOW.plus(Duration.ofHours(1)));
+
+    @Test
+    void signedAndEncryptedCookiesRoundTrip() {
+        String signed = new SessionCookieCodec(props(false, "k1"), clock).encode(session);
+        String sealed = new SessionCookieCodec(props(true, "k1"), clock).encode(session);
+
+        assertThat(signed).startsWith("s1.k1.");
+        assertThat(sealed).startsWith("e1.k1.").doesNotContain(".U2F1cm9u");
+        assertThat(new SessionCookieCodec(props(false, "k1"), clock).decode(signed)).contains(session);
+        assertThat(new SessionCookieCodec(props(false, "k1"), clock).decode(sealed)).contains(session);
+    }
+
+    @Test
+    void tamperedForeignAndExpiredCookiesAreRejected() {
+        SessionCookieCodec codec = new SessionCookieCodec(props(false, "k1"), clock);
+        String signed = codec.encode(session);
+        String payload = signed.split("\\.")[2];
+        String tampered = signed.replace(payload, payload.substring(0, payload.length() - 2) + "AA");
+
+        assertThat(codec.decode(tampered)).isEmpty();
+        assertThat(codec.decode(new SessionCookieCodec(props(false, "k2"), clock).encode(session))).isEmpty();
+        assertThat(codec.decode("s1.k1.not-a-cookie")).isEmpty();
+        assertThat(new SessionCookieCodec(props(false, "k1"), Clock.offset(clock, Duration.ofHours(2)))
+                .decode(signed)).isEmpty();
+    }
+
+    @Test
+    void retiredKeyStillVerifiesAfterRotation() {
+        String old = new SessionCookieCodec(props(false, "k1"), clock).encode(session);
+
+        SessionCookieCodec rotated = new SessionCookieCodec(props(false, "k2", "k1"), clock);
+
+        assertThat(rotated.decode(old)).contains(session);
+        assertThat(rotated.encode(session)).startsWith("s1.k2.");
+    }
+
+    @Test
+    void generatedKeyIsNotAddedToTheConfiguredProperties() {
+        SessionCookieProps unconfigured = props(true);
+
+        SessionCookieCodec codec = new SessionCookieConfig().sessionCookieCodec(unconfigured, clock);
+
+        assertThat(unconfigured.getKeys()).isEmpty();
+        assertThat(codec.decode(codec.encode(session))).contains(session);
+    }
+
+    static SessionCookieProps props(boolean encrypt, String... keyIds) {
+        SessionCookieProps props = new SessionCookieProps();
+        props.setEncrypt(encrypt);
+        for (String id : keyIds) {
+            SessionCookieProps.Key key = new SessionCookieProps.Key();
+            key.setId(id);
+            key.setSecret(Base64.getEncoder().encodeToString((id + "-0123456789abcdef0123456789abcdef").getBytes()));
+            props.getKeys().add(key);
+        }
+        return props;
+    }
+}